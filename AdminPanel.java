@@ -1,14 +1,27 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionListener;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 public class AdminPanel extends JFrame {
 
+    // Serializes read-modify-write cycles on events.txt across background tasks
+    private static final Object EVENTS_LOCK = new Object();
+
     private JTextArea outputArea;
+    private final UiTaskRunner tasks = new UiTaskRunner(this);
+    private final CardLayout centerCards = new CardLayout();
+    private final JPanel centerPanel = new JPanel(centerCards);
+    private BookingTablePanel bookingTable;
+    private SalesPanel salesPanel;
+    private final JTextArea performanceArea = new JTextArea();
+    private final Timer performanceTimer = new Timer(1000, e -> performanceArea.setText(Metrics.report()));
 
     public AdminPanel() {
         setTitle("Admin Panel");
@@ -16,6 +29,7 @@ public class AdminPanel extends JFrame {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
+        SalesAggregates.getInstance(); // start loading the sales totals before they are first shown
 
         // Welcome label
         JLabel welcomeLabel = new JLabel("Welcome Admin!", SwingConstants.CENTER);
@@ -26,7 +40,11 @@ public class AdminPanel extends JFrame {
         outputArea = new JTextArea(15, 50);
         outputArea.setEditable(false);
         JScrollPane scrollPane = new JScrollPane(outputArea);
-        add(scrollPane, BorderLayout.CENTER);
+        centerPanel.add(scrollPane, "text");
+        performanceArea.setEditable(false);
+        performanceArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        centerPanel.add(new JScrollPane(performanceArea), "performance");
+        add(centerPanel, BorderLayout.CENTER);
 
         // Buttons panel
         JPanel buttonPanel = new JPanel();
@@ -38,6 +56,10 @@ public class AdminPanel extends JFrame {
         JButton eventReportBtn = new JButton("Event Report");
         JButton salesMonitorBtn = new JButton("Monitor Sales");
         JButton deleteEventBtn = new JButton("Delete Event");
+        JButton exportBtn = new JButton("Export Report");
+        JButton lookupBtn = new JButton("Booking Lookup");
+        JButton importBtn = new JButton("Import Group Bookings");
+        JButton performanceBtn = new JButton("Performance");
         JButton exitBtn = new JButton("Exit");
 
         buttonPanel.add(totalTicketsBtn);
@@ -48,19 +70,29 @@ public class AdminPanel extends JFrame {
         buttonPanel.add(eventReportBtn);
         buttonPanel.add(salesMonitorBtn);
         buttonPanel.add(deleteEventBtn);
+        buttonPanel.add(exportBtn);
+        buttonPanel.add(lookupBtn);
+        buttonPanel.add(importBtn);
+        buttonPanel.add(performanceBtn);
         buttonPanel.add(exitBtn);
         add(buttonPanel, BorderLayout.SOUTH);
 
         // Action listeners for buttons
-        totalTicketsBtn.addActionListener(e -> displayTotalTickets());
-        memberDetailsBtn.addActionListener(e -> displayMemberTicketDetails());
-        manageEventsBtn.addActionListener(e -> manageEvents());
-        updatePricesBtn.addActionListener(e -> updateTicketPrices());
-        inquiriesBtn.addActionListener(e -> handleInquiries());
-        eventReportBtn.addActionListener(e -> generateEventReport());
-        salesMonitorBtn.addActionListener(e -> monitorSales());
-        deleteEventBtn.addActionListener(e -> deleteEvent());
-        exitBtn.addActionListener(e -> {
+        onClick(totalTicketsBtn, e -> withText(this::displayTotalTickets));
+        onClick(memberDetailsBtn, e -> displayMemberTicketDetails());
+        onClick(manageEventsBtn, e -> withText(this::manageEvents));
+        onClick(updatePricesBtn, e -> withText(this::updateTicketPrices));
+        onClick(inquiriesBtn, e -> withText(this::handleInquiries));
+        onClick(eventReportBtn, e -> generateEventReport());
+        onClick(salesMonitorBtn, e -> monitorSales());
+        onClick(deleteEventBtn, e -> withText(this::deleteEvent));
+        onClick(exportBtn, e -> withText(this::exportReport));
+        onClick(lookupBtn, e -> withText(this::lookupBooking));
+        onClick(importBtn, e -> withText(this::importGroupBookings));
+        onClick(performanceBtn, e -> showPerformance());
+        onClick(exitBtn, e -> {
+            performanceTimer.stop();
+            closeSalesPanel();
             new MusicEventApp(); // Return to login/signup
             dispose();
         });
@@ -68,99 +100,131 @@ public class AdminPanel extends JFrame {
         setVisible(true);
     }
 
-    // Calculate available tickets for an event
-    private int calculateAvailableTickets(String eventName) {
-        File file = new File("events.txt");
-        int totalTickets = 100; // Default if not found
-        if (file.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(",");
-                    if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
-                        totalTickets = Integer.parseInt(parts[4].trim());
-                        break;
-                    }
-                }
-            } catch (IOException e) {
-  System.out.println("Wrong Input: " + e.getMessage());
-            }
-        }
-        int bookedTickets = 0;
-        File bookingFile = new File("ticket_bookings.txt");
-        if (!bookingFile.exists()) {
-            return totalTickets;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(bookingFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3 && parts[1].trim().equals(eventName)) {
-                    bookedTickets += Integer.parseInt(parts[2].trim());
-                }
+    // Button handler recorded as a FlightEvents.UiAction named after the button
+    private void onClick(JButton button, ActionListener listener) {
+        button.addActionListener(FlightEvents.uiAction("AdminPanel", button.getText(), listener));
+    }
+
+    // Build the output text off the EDT; a newer report replaces one still loading
+    private void showReport(Callable<String> work) {
+        tasks.submit("output", work, outputArea::setText);
+    }
+
+    // Apply an events.txt change off the EDT; changes are never superseded.
+    // The catalog is brought up to date first, so the change can be handed to it afterwards.
+    private void updateEvents(Callable<String> work) {
+        tasks.submit(null, () -> {
+            synchronized (EVENTS_LOCK) {
+                EventCatalog.getInstance().refresh();
+                return work.call();
             }
-        } catch (IOException e) {
-            System.out.println("Please check the input: " + e.getMessage());
-        }
-        return totalTickets - bookedTickets;
+        }, outputArea::setText);
     }
 
     // Display total tickets booked
     private void displayTotalTickets() {
-        int totalTickets = 0;
-        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        File file = new File("ticket_bookings.txt");
-        if (!file.exists()) {
-            outputArea.setText("No ticket bookings file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    totalTickets += Integer.parseInt(parts[2].trim()); // ticket_count
+        showReport(() -> {
+            String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            File file = new File("ticket_bookings.txt");
+            if (!file.exists()) {
+                return "No ticket bookings file found.";
+            }
+            SalesAggregates sales = SalesAggregates.getInstance();
+            SalesAggregates.Totals totals = sales.awaitTotals(); // kept current as bookings commit
+            StringBuilder text = new StringBuilder("Total Tickets Booked (as of " + currentTime + "): " + totals.getTicketsSold() + "\n\n");
+            for (SalesAggregates.EventSales event : sales.getEventSales()) {
+                if (event.getBookings() > 0) {
+                    text.append("Event: ").append(event.getEventName()).append(", Tickets: ").append(event.getTicketsSold()).append("\n");
                 }
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading ticket bookings: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Total Tickets Booked (as of " + currentTime + "): " + totalTickets + "\n");
+            return text.toString();
+        });
     }
 
     // Display ticket details for each member
     private void displayMemberTicketDetails() {
-        List<String> details = new ArrayList<>();
+        showBookingTable(false, BookingIndex.Column.USER, BookingIndex.Column.EVENT, BookingIndex.Column.TICKETS,
+                BookingIndex.Column.SEATS, BookingIndex.Column.BOOKING_ID, BookingIndex.Column.TIME);
+    }
+
+    // Switch the center to the text output before running a text-based action
+    private void withText(Runnable action) {
+        performanceTimer.stop();
+        closeBookingTable();
+        closeSalesPanel();
+        centerCards.show(centerPanel, "text");
+        action.run();
+    }
+
+    // Index the active bookings off the EDT, then show them in a paged table, optionally under per-event totals
+    private void showBookingTable(boolean eventTotals, BookingIndex.Column... columns) {
         File file = new File("ticket_bookings.txt");
         if (!file.exists()) {
-            outputArea.setText("No ticket bookings file found.");
+            withText(() -> outputArea.setText("No ticket bookings file found."));
             return;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    String username = parts[0].trim();
-                    String eventType = parts[1].trim();
-                    String ticketCount = parts[2].trim();
-                    String timestamp = parts[3].trim();
-                    String seats = parts[4].trim();
-                    String bookingId = parts[5].trim();
-                    details.add("User: " + username + ", Event: " + eventType + ", Tickets: " + ticketCount + ", Seats: " + seats + ", Booking ID: " + bookingId + ", Time: " + timestamp);
-                }
+        tasks.submit("output", () -> {
+            String summary = eventTotals ? eventTotalsSummary(SalesAggregates.getInstance()) : null;
+            return new BookingView(BookingIndex.build(file), summary);
+        }, view -> {
+            performanceTimer.stop();
+            closeBookingTable();
+            closeSalesPanel();
+            bookingTable = new BookingTablePanel(tasks, new BookingTableModel(view.index, columns), view.summary);
+            centerPanel.add(bookingTable, "table");
+            centerCards.show(centerPanel, "table");
+        }, error -> withText(() -> outputArea.setText("Error reading ticket bookings: " + error.getMessage())));
+    }
+
+    // Live operation latencies and counters, refreshed every second while shown
+    private void showPerformance() {
+        closeBookingTable();
+        closeSalesPanel();
+        performanceArea.setText(Metrics.report());
+        centerCards.show(centerPanel, "performance");
+        performanceTimer.start();
+    }
+
+    // What the background load of a booking table hands to the EDT
+    private static class BookingView {
+        final BookingIndex index;
+        final String summary;
+
+        BookingView(BookingIndex index, String summary) {
+            this.index = index;
+            this.summary = summary;
+        }
+    }
+
+    private static String eventTotalsSummary(SalesAggregates sales) throws InterruptedException {
+        SalesAggregates.Totals totals = sales.awaitTotals();
+        StringBuilder text = new StringBuilder("Event Report: ").append(totals.getTicketsSold()).append(" tickets sold\n");
+        for (SalesAggregates.EventSales event : sales.getEventSales()) {
+            if (event.getBookings() == 0) {
+                continue;
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading ticket bookings: " + e.getMessage());
-            return;
+            text.append("Event: ").append(event.getEventName())
+                .append(", Tickets Sold: ").append(event.getTicketsSold())
+                .append(", Bookings: ").append(event.getActiveBookings())
+                .append(", Cancellations: ").append(event.getCancellations())
+                .append("\n");
         }
-        outputArea.setText("Member Ticket Details:\n");
-        for (String detail : details) {
-            outputArea.append(detail + "\n");
+        return text.toString();
+    }
+
+    private void closeSalesPanel() {
+        if (salesPanel != null) {
+            centerPanel.remove(salesPanel);
+            salesPanel.close();
+            salesPanel = null;
         }
-        if (details.isEmpty()) {
-            outputArea.append("No ticket bookings found.\n");
+    }
+
+    private void closeBookingTable() {
+        if (bookingTable != null) {
+            centerPanel.remove(bookingTable);
+            bookingTable.close();
+            bookingTable = null;
         }
     }
 
@@ -173,31 +237,43 @@ public class AdminPanel extends JFrame {
         }
         String priceStr = JOptionPane.showInputDialog(this, "Enter ticket price:");
         String dateTimeStr = JOptionPane.showInputDialog(this, "Enter date and time (yyyy-MM-dd HH:mm):");
-        String location = JOptionPane.showInputDialog(this, "Enter event location:");
+        String locationInput = JOptionPane.showInputDialog(this, "Enter event location:");
         String totalTicketsStr = JOptionPane.showInputDialog(this, "Enter total tickets for sale:");
+        double price;
+        int totalTickets;
         try {
-            double price = Double.parseDouble(priceStr.trim());
+            price = Double.parseDouble(priceStr.trim());
             if (price <= 0) {
                 outputArea.setText("Price must be positive.");
                 return;
             }
-            int totalTickets = Integer.parseInt(totalTicketsStr.trim());
+            totalTickets = Integer.parseInt(totalTicketsStr.trim());
             if (totalTickets <= 0) {
                 outputArea.setText("Total tickets must be positive.");
                 return;
             }
             LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")); // Validate date-time
-            if (location == null || location.trim().isEmpty()) {
-                location = "Not specified";
-            }
+        } catch (NumberFormatException e) {
+            outputArea.setText("Invalid price or ticket count format.");
+            return;
+        } catch (Exception e) {
+            outputArea.setText("Invalid date/time format. Use yyyy-MM-dd HH:mm.");
+            return;
+        }
+        String location = locationInput == null || locationInput.trim().isEmpty() ? "Not specified" : locationInput;
+        updateEvents(() -> {
             // Check if event already exists
             List<String> events = new ArrayList<>();
             boolean eventExists = false;
             File file = new File("events.txt");
             if (file.exists()) {
+                FlightEvents.FileScan scan = new FlightEvents.FileScan();
+                scan.begin();
                 try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                    long lines = 0;
                     String line;
                     while ((line = reader.readLine()) != null) {
+                        lines++;
                         String[] parts = line.split(",");
                         if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
                             events.add(eventName + "," + price + "," + dateTimeStr + "," + location + "," + totalTickets);
@@ -206,9 +282,9 @@ public class AdminPanel extends JFrame {
                             events.add(line);
                         }
                     }
+                    scan.finish(file, file.length(), lines);
                 } catch (IOException e) {
-                    outputArea.setText("Error reading events: " + e.getMessage());
-                    return;
+                    return "Error reading events: " + e.getMessage();
                 }
             }
             // If event doesn't exist, append it
@@ -216,8 +292,7 @@ public class AdminPanel extends JFrame {
                 try (FileWriter writer = new FileWriter(file, true)) {
                     writer.write(eventName + "," + price + "," + dateTimeStr + "," + location + "," + totalTickets + "\n");
                 } catch (IOException e) {
-                    outputArea.setText("Error saving event: " + e.getMessage());
-                    return;
+                    return "Error saving event: " + e.getMessage();
                 }
             } else {
                 // Update existing event
@@ -226,16 +301,12 @@ public class AdminPanel extends JFrame {
                         writer.write(event + "\n");
                     }
                 } catch (IOException e) {
-                    outputArea.setText("Error updating events: " + e.getMessage());
-                    return;
+                    return "Error updating events: " + e.getMessage();
                 }
             }
-            outputArea.setText("Event '" + eventName + "' " + (eventExists ? "updated" : "added") + " with price $" + price + ", date/time " + dateTimeStr + ", location " + location + ", total tickets " + totalTickets + ".\n");
-        } catch (NumberFormatException e) {
-            outputArea.setText("Invalid price or ticket count format.");
-        } catch (Exception e) {
-            outputArea.setText("Invalid date/time format. Use yyyy-MM-dd HH:mm.");
-        }
+            EventCatalog.getInstance().putEvent(eventName + "," + price + "," + dateTimeStr + "," + location + "," + totalTickets);
+            return "Event '" + eventName + "' " + (eventExists ? "updated" : "added") + " with price $" + price + ", date/time " + dateTimeStr + ", location " + location + ", total tickets " + totalTickets + ".\n";
+        });
     }
 
     // Update ticket prices and date/time
@@ -247,33 +318,44 @@ public class AdminPanel extends JFrame {
         }
         String priceStr = JOptionPane.showInputDialog(this, "Enter new ticket price:");
         String dateTimeStr = JOptionPane.showInputDialog(this, "Enter new date and time (yyyy-MM-dd HH:mm):");
-        String location = JOptionPane.showInputDialog(this, "Enter new event location:");
+        String locationInput = JOptionPane.showInputDialog(this, "Enter new event location:");
         String totalTicketsStr = JOptionPane.showInputDialog(this, "Enter new total tickets for sale:");
+        double price;
+        int totalTickets;
         try {
-            double price = Double.parseDouble(priceStr.trim());
+            price = Double.parseDouble(priceStr.trim());
             if (price <= 0) {
                 outputArea.setText("Price must be positive.");
                 return;
             }
-            int totalTickets = Integer.parseInt(totalTicketsStr.trim());
+            totalTickets = Integer.parseInt(totalTicketsStr.trim());
             if (totalTickets <= 0) {
                 outputArea.setText("Total tickets must be positive.");
                 return;
             }
             LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")); // Validate date-time
-            if (location == null || location.trim().isEmpty()) {
-                location = "Not specified";
-            }
+        } catch (NumberFormatException e) {
+            outputArea.setText("Invalid price or ticket count format.");
+            return;
+        } catch (Exception e) {
+            outputArea.setText("Invalid date/time format. Use yyyy-MM-dd HH:mm.");
+            return;
+        }
+        String location = locationInput == null || locationInput.trim().isEmpty() ? "Not specified" : locationInput;
+        updateEvents(() -> {
             List<String> events = new ArrayList<>();
             boolean found = false;
             File file = new File("events.txt");
             if (!file.exists()) {
-                outputArea.setText("No events file found.");
-                return;
+                return "No events file found.";
             }
+            FlightEvents.FileScan scan = new FlightEvents.FileScan();
+            scan.begin();
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                long lines = 0;
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    lines++;
                     String[] parts = line.split(",");
                     if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
                         events.add(eventName + "," + price + "," + dateTimeStr + "," + location + "," + totalTickets);
@@ -282,145 +364,192 @@ public class AdminPanel extends JFrame {
                         events.add(line);
                     }
                 }
+                scan.finish(file, file.length(), lines);
             } catch (IOException e) {
-                outputArea.setText("Error reading events: " + e.getMessage());
-                return;
+                return "Error reading events: " + e.getMessage();
             }
             if (!found) {
-                outputArea.setText("Event '" + eventName + "' not found.");
-                return;
+                return "Event '" + eventName + "' not found.";
             }
             try (FileWriter writer = new FileWriter(file)) {
                 for (String event : events) {
                     writer.write(event + "\n");
                 }
             } catch (IOException e) {
-                outputArea.setText("Error updating events: " + e.getMessage());
-                return;
+                return "Error updating events: " + e.getMessage();
             }
-            outputArea.setText("Event '" + eventName + "' updated to price $" + price + ", date/time " + dateTimeStr + ", location " + location + ", total tickets " + totalTickets + ".\n");
-        } catch (NumberFormatException e) {
-            outputArea.setText("Invalid price or ticket count format.");
-        } catch (Exception e) {
-            outputArea.setText("Invalid date/time format. Use yyyy-MM-dd HH:mm.");
-        }
+            EventCatalog.getInstance().putEvent(eventName + "," + price + "," + dateTimeStr + "," + location + "," + totalTickets);
+            return "Event '" + eventName + "' updated to price $" + price + ", date/time " + dateTimeStr + ", location " + location + ", total tickets " + totalTickets + ".\n";
+        });
     }
 
-    // Handle customer inquiries
+    // Handle customer inquiries: load in the background, ask for a response, save it in the background
     private void handleInquiries() {
-        List<String> inquiries = new ArrayList<>();
         File file = new File("inquiries.txt");
-        if (!file.exists()) {
-            outputArea.setText("No inquiries file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                inquiries.add(line);
+        tasks.submit("output", () -> {
+            if (!file.exists()) {
+                return null;
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading inquiries: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Customer Inquiries:\n");
-        if (inquiries.isEmpty()) {
-            outputArea.append("No inquiries found.\n");
-            return;
-        }
-        for (String inquiry : inquiries) {
-            outputArea.append(inquiry + "\n");
-        }
-        String response = JOptionPane.showInputDialog(this, "Enter response to inquiries (or leave blank to skip):");
-        if (response != null && !response.trim().isEmpty()) {
-            try (FileWriter writer = new FileWriter(file, true)) {
-                writer.write("Admin Response: " + response + "\n");
-            } catch (IOException e) {
-                outputArea.setText("Error saving response: " + e.getMessage());
+            List<String> inquiries = new ArrayList<>();
+            FlightEvents.FileScan scan = new FlightEvents.FileScan();
+            scan.begin();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    inquiries.add(line);
+                }
+                scan.finish(file, file.length(), inquiries.size());
+            }
+            return inquiries;
+        }, inquiries -> {
+            if (inquiries == null) {
+                outputArea.setText("No inquiries file found.");
                 return;
             }
-            outputArea.append("Response saved: " + response + "\n");
-        }
+            outputArea.setText("Customer Inquiries:\n");
+            if (inquiries.isEmpty()) {
+                outputArea.append("No inquiries found.\n");
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (String inquiry : inquiries) {
+                text.append(inquiry).append("\n");
+            }
+            outputArea.append(text.toString());
+            String response = JOptionPane.showInputDialog(this, "Enter response to inquiries (or leave blank to skip):");
+            if (response != null && !response.trim().isEmpty()) {
+                tasks.submit(null, () -> {
+                    try (FileWriter writer = new FileWriter(file, true)) {
+                        writer.write("Admin Response: " + response + "\n");
+                    }
+                    return response;
+                }, saved -> outputArea.append("Response saved: " + saved + "\n"),
+                    error -> outputArea.setText("Error saving response: " + error.getMessage()));
+            }
+        }, error -> outputArea.setText("Error reading inquiries: " + error.getMessage()));
     }
 
     // Generate event report
     private void generateEventReport() {
-        List<String> report = new ArrayList<>();
-        File file = new File("ticket_bookings.txt");
-        if (!file.exists()) {
+        showBookingTable(true, BookingIndex.Column.EVENT, BookingIndex.Column.TICKETS, BookingIndex.Column.SEATS, BookingIndex.Column.BOOKING_ID);
+    }
+
+    // Monitor sales (total revenue plus per-event breakdown), updated live while shown
+    private void monitorSales() {
+        performanceTimer.stop();
+        closeBookingTable();
+        if (salesPanel == null) {
+            salesPanel = new SalesPanel();
+            centerPanel.add(salesPanel, "sales");
+        }
+        centerCards.show(centerPanel, "sales");
+    }
+
+    // Export the event report or member ticket details to CSV/JSON Lines, streaming from the log
+    private void exportReport() {
+        File log = new File("ticket_bookings.txt");
+        if (!log.exists()) {
             outputArea.setText("No ticket bookings file found.");
             return;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6) {
-                    String eventType = parts[1].trim();
-                    String ticketCount = parts[2].trim();
-                    String seats = parts[4].trim();
-                    String bookingId = parts[5].trim();
-                    report.add("Event: " + eventType + ", Tickets Sold: " + ticketCount + ", Seats: " + seats + ", Booking ID: " + bookingId);
-                }
-            }
-        } catch (IOException e) {
-            outputArea.setText("Error reading ticket bookings: " + e.getMessage());
+        String[] reports = {"Event Report", "Member Ticket Details"};
+        int report = JOptionPane.showOptionDialog(this, "Which report do you want to export?", "Export Report",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, reports, reports[0]);
+        if (report < 0) {
             return;
         }
-        outputArea.setText("Event Report:\n");
-        if (report.isEmpty()) {
-            outputArea.append("No ticket bookings found.\n");
+        String[] formats = {"CSV", "JSON Lines"};
+        int format = JOptionPane.showOptionDialog(this, "Export format:", "Export Report",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, formats, formats[0]);
+        if (format < 0) {
             return;
         }
-        for (String line : report) {
-            outputArea.append(line + "\n");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File((report == 0 ? "event_report" : "member_ticket_details") + (format == 0 ? ".csv" : ".jsonl")));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        File output = chooser.getSelectedFile();
+        outputArea.setText("Exporting to " + output.getPath() + "...\n");
+        tasks.submit("export", () -> BookingExporter.export(log, output,
+                report == 0 ? BookingExporter.Report.EVENT_REPORT : BookingExporter.Report.MEMBER_DETAILS,
+                format == 0 ? BookingExporter.Format.CSV : BookingExporter.Format.JSONL,
+                progress -> SwingUtilities.invokeLater(() -> outputArea.setText("Exporting to " + output.getPath() + "...\n" + progress + "\n"))),
+            done -> outputArea.setText(String.format("Exported %d bookings to %s in %.2f s (%.0f rows/s, %.1f MB/s).%n",
+                done.getRows(), output.getPath(), done.getSeconds(), done.getRowsPerSecond(), done.getMegabytesPerSecond())),
+            error -> outputArea.setText("Error exporting report: " + error.getMessage()));
     }
 
-    // Monitor sales (total revenue)
-    private void monitorSales() {
-        double totalRevenue = 0.0;
-        List<String> events = new ArrayList<>();
-        File eventFile = new File("events.txt");
-        if (!eventFile.exists()) {
-            outputArea.setText("No events file found.");
+    // Look up a booking by ID through the booking ID index
+    private void lookupBooking() {
+        String input = JOptionPane.showInputDialog(this, "Enter Booking ID:");
+        if (input == null || input.trim().isEmpty()) {
+            outputArea.setText("Booking ID cannot be empty.");
             return;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(eventFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                events.add(line);
+        String bookingId = input.trim();
+        showReport(() -> {
+            List<BookingIdIndex.Match> matches;
+            try {
+                matches = BookingService.getInstance().lookupBooking(bookingId);
+            } catch (IOException e) {
+                return "Error reading ticket bookings: " + e.getMessage();
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading events: " + e.getMessage());
-            return;
-        }
-        File bookingFile = new File("ticket_bookings.txt");
-        if (!bookingFile.exists()) {
-            outputArea.setText("No ticket bookings file found.");
+            if (matches.isEmpty()) {
+                return "Booking ID '" + bookingId + "' not found.";
+            }
+            StringBuilder text = new StringBuilder();
+            for (BookingIdIndex.Match match : matches) {
+                BookingRecord record = match.getRecord();
+                Event event = BookingService.getInstance().getEvent(record.getEventName());
+                text.append("Booking ID: ").append(record.getBookingId()).append("\n")
+                        .append("Status: ").append(match.getStatusText()).append("\n")
+                        .append("User: ").append(record.getUsername()).append("\n")
+                        .append("Event: ").append(record.getEventName()).append("\n")
+                        .append("Event Date: ").append(event != null ? event.getDateTimeText() : "Not set").append("\n")
+                        .append("Tickets: ").append(record.getTicketCount()).append("\n")
+                        .append("Seats: ").append(record.getSeats()).append("\n")
+                        .append("Booked At: ").append(record.getTimestamp()).append("\n\n");
+            }
+            return text.toString();
+        });
+    }
+
+    // Book every row of a CSV (username,event,seats...) as one group booking, or report why not
+    private void importGroupBookings() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
             return;
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(bookingFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    String eventType = parts[1].trim();
-                    int ticketCount = Integer.parseInt(parts[2].trim());
-                    for (String event : events) {
-                        String[] eventParts = event.split(",");
-                        if (eventParts.length >= 5 && eventParts[0].trim().equals(eventType)) {
-                            double price = Double.parseDouble(eventParts[1].trim());
-                            totalRevenue += ticketCount * price;
-                        }
-                    }
+        File input = chooser.getSelectedFile();
+        outputArea.setText("Importing " + input.getPath() + "...\n");
+        tasks.submit(null, () -> {
+            long start = System.nanoTime();
+            BookingBatch batch = BookingBatch.readCsv(input);
+            BookingBatch.Result result = BookingService.getInstance().bookBatch(batch);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            StringBuilder text = new StringBuilder();
+            if (!result.isCommitted()) {
+                text.append("Import rejected: ").append(result.getRejections().size()).append(" of ").append(batch.size())
+                        .append(" rows cannot be booked. Nothing was booked; fix these rows and import again.\n\n");
+                for (BookingBatch.Rejection rejection : result.getRejections()) {
+                    text.append(rejection).append("\n");
                 }
+                return text.toString();
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading ticket bookings: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Total Sales Revenue: $" + String.format("%.2f", totalRevenue) + "\n");
+            if (batch.size() == 0) {
+                return "No bookings found in " + input.getPath() + ".";
+            }
+            text.append(String.format("Imported %d bookings from %s in %.2f s.%n%n", batch.size(), input.getName(), seconds));
+            List<BookingBatch.Row> rows = batch.getRows();
+            for (int i = 0; i < rows.size(); i++) {
+                BookingBatch.Row row = rows.get(i);
+                text.append("Line ").append(row.getLine()).append(": ").append(result.getBookingIds().get(i)).append(", ")
+                        .append(row.getUsername()).append(", ").append(row.getEventName()).append(", ")
+                        .append(String.join(",", row.getSeats())).append("\n");
+            }
+            return text.toString();
+        }, outputArea::setText, error -> outputArea.setText("Error importing group bookings: " + error.getMessage()));
     }
 
     // Delete an event
@@ -430,61 +559,58 @@ public class AdminPanel extends JFrame {
             outputArea.setText("Event name cannot be empty.");
             return;
         }
-        List<String> events = new ArrayList<>();
-        boolean found = false;
-        File file = new File("events.txt");
-        if (!file.exists()) {
-            outputArea.setText("No events file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
-                    found = true;
-                } else {
-                    events.add(line);
+        updateEvents(() -> {
+            List<String> events = new ArrayList<>();
+            boolean found = false;
+            File file = new File("events.txt");
+            if (!file.exists()) {
+                return "No events file found.";
+            }
+            FlightEvents.FileScan scan = new FlightEvents.FileScan();
+            scan.begin();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                long lines = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    String[] parts = line.split(",");
+                    if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
+                        found = true;
+                    } else {
+                        events.add(line);
+                    }
                 }
+                scan.finish(file, file.length(), lines);
+            } catch (IOException e) {
+                return "Error reading events: " + e.getMessage();
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading events: " + e.getMessage());
-            return;
-        }
-        if (!found) {
-            outputArea.setText("Event '" + eventName + "' not found.");
-            return;
-        }
-        try (FileWriter writer = new FileWriter(file)) {
-            for (String event : events) {
-                writer.write(event + "\n");
+            if (!found) {
+                return "Event '" + eventName + "' not found.";
             }
-        } catch (IOException e) {
-            outputArea.setText("Error updating events: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Event '" + eventName + "' deleted successfully.\n");
-    }
-
-    // Utility method to log ticket booking
-    public static void logTicketBooking(String username, String eventType, int ticketCount, String seats, String bookingId) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        File file = new File("ticket_bookings.txt");
-        try (FileWriter writer = new FileWriter(file, true)) {
-            writer.write(username + "," + eventType + "," + ticketCount + "," + timestamp + "," + seats + "," + bookingId + "\n");
-        } catch (IOException e) {
-            System.out.println("Error logging ticket booking: " + e.getMessage());
-        }
+            try (FileWriter writer = new FileWriter(file)) {
+                for (String event : events) {
+                    writer.write(event + "\n");
+                }
+            } catch (IOException e) {
+                return "Error updating events: " + e.getMessage();
+            }
+            EventCatalog.getInstance().removeEvent(eventName);
+            return "Event '" + eventName + "' deleted successfully.\n";
+        });
     }
 
-    // Utility method to log customer inquiry
-    public static void logInquiry(String username, String inquiry) {
-        File file = new File("inquiries.txt");
-        try (FileWriter writer = new FileWriter(file, true)) {
-            writer.write("User: " + username + ", Inquiry: " + inquiry + "\n");
-        } catch (IOException e) {
-            System.out.println("Error logging inquiry: " + e.getMessage());
-        }
+    // Utility method to log customer inquiry; the append runs off the calling thread
+    public static CompletableFuture<Void> logInquiry(String username, String inquiry) {
+        return AsyncRepository.run(() -> {
+            File file = new File("inquiries.txt");
+            try (FileWriter writer = new FileWriter(file, true)) {
+                writer.write("User: " + username + ", Inquiry: " + inquiry + "\n");
+            }
+        }).whenComplete((v, e) -> {
+            if (e != null) {
+                System.out.println("Error logging inquiry: " + e.getCause().getMessage());
+            }
+        });
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,71 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// Sequential vs parallel BookingAggregator on a synthetic booking log. Prints the scan rate in
+// MB/s for both paths and fails if they disagree on any total. On a large log (several GB, in
+// the page cache) the parallel rate should approach memory bandwidth.
+// Usage: java AggregationBenchmark [megabytes] [eventCount] [existing log file]
+//        (defaults: 512 MB, 500 events; a given log file is used as is instead of generating one)
+public class AggregationBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 512;
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        File bookings;
+        if (args.length > 2) {
+            bookings = new File(args[2]);
+        } else {
+            bookings = File.createTempFile("bookings-", ".txt");
+            bookings.deleteOnExit();
+            generate(bookings, megabytes * 1024 * 1024, eventCount);
+        }
+        System.out.printf("log: %.1f MB, %d workers%n", bookings.length() / (1024.0 * 1024.0), Runtime.getRuntime().availableProcessors());
+
+        BookingAggregator.Totals sequential = null;
+        BookingAggregator.Totals parallel = null;
+        for (int round = 0; round < 3; round++) {
+            sequential = run("sequential", bookings, false);
+            parallel = run("parallel", bookings, true);
+        }
+        if (sequential.getTotalTickets() != parallel.getTotalTickets() || sequential.getRows() != parallel.getRows()) {
+            System.out.println("Totals differ: sequential " + sequential.getTotalTickets() + "/" + sequential.getRows()
+                    + " rows, parallel " + parallel.getTotalTickets() + "/" + parallel.getRows() + " rows");
+            System.exit(1);
+        }
+        for (BookingAggregator.EventTotals event : sequential.getEvents()) {
+            BookingAggregator.EventTotals other = parallel.getEvent(event.getEventName());
+            if (other == null || other.getTickets() != event.getTickets() || other.getBookings() != event.getBookings()) {
+                System.out.println("Totals differ for " + event.getEventName());
+                System.exit(1);
+            }
+        }
+        System.out.println("Sequential and parallel totals match: " + parallel.getTotalTickets() + " tickets in " + parallel.getRows() + " rows.");
+        if (args.length <= 2) {
+            bookings.delete();
+        }
+    }
+
+    private static BookingAggregator.Totals run(String name, File bookings, boolean parallel) throws IOException {
+        long start = System.nanoTime();
+        BookingAggregator.Totals totals = BookingAggregator.aggregate(bookings, parallel);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-11s %8d ms %10.0f MB/s %12.0f rows/s%n", name, elapsed / 1_000_000,
+                totals.getBytes() / (1024.0 * 1024.0) / (elapsed / 1e9), totals.getRows() / (elapsed / 1e9));
+        return totals;
+    }
+
+    private static void generate(File file, long bytes, int eventCount) throws IOException {
+        Random random = new Random(42);
+        long written = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            for (long i = 0; written < bytes; i++) {
+                boolean cancel = random.nextInt(20) == 0;
+                String line = "user" + random.nextInt(100_000) + ",Event " + random.nextInt(eventCount) + "," + (cancel ? "-" : "") + (1 + random.nextInt(4))
+                        + ",2030-01-01 10:00:00,A1,B2,B" + i + "\n";
+                writer.write(line);
+                written += line.length();
+            }
+        }
+    }
+}
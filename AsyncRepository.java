@@ -0,0 +1,69 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+// Data access off the Swing event dispatch thread.
+// Every call runs on a dedicated executor (one virtual thread per task when the JVM has them,
+// otherwise a pool of daemon threads) and returns a CompletableFuture. Cancelling the future
+// interrupts the task, which lets a UI drop a query that a newer click has superseded.
+public class AsyncRepository {
+
+    private static final ExecutorService EXECUTOR = createExecutor("async-repository");
+
+    // Work that may throw a checked exception and returns nothing
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private AsyncRepository() {
+    }
+
+    public static <T> CompletableFuture<T> supply(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = EXECUTOR.submit(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(new CompletionException(t));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new CompletionException(e));
+            return result;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public static CompletableFuture<Void> run(Task work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Virtual threads when the runtime has them (Java 21+), otherwise daemon platform threads; also used by BookingServer
+    static ExecutorService createExecutor(String threadName) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
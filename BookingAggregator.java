@@ -0,0 +1,281 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Per-event ticket totals over ticket_bookings.txt, computed in parallel.
+// The log is split into byte ranges that each end just after a newline; every range is scanned
+// on a fork-join worker (RecordScanner, no per-record allocation) into its own per-event
+// accumulators, and the partial results are merged when the workers finish.
+// -Dbooking.aggregate.sequential=true forces a single sequential scan, for comparison.
+public class BookingAggregator {
+
+    private static final boolean SEQUENTIAL = Boolean.getBoolean("booking.aggregate.sequential");
+    private static final long MIN_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    // Totals for one event name as it appears in the log
+    public static class EventTotals {
+        private final String eventName;
+        private long tickets;
+        private long bookings;
+        private long cancellations;
+
+        EventTotals(String eventName) {
+            this.eventName = eventName;
+        }
+
+        void add(int ticketCount) {
+            tickets += ticketCount;
+            if (ticketCount < 0) {
+                cancellations++;
+            } else {
+                bookings++;
+            }
+        }
+
+        void merge(EventTotals other) {
+            tickets += other.tickets;
+            bookings += other.bookings;
+            cancellations += other.cancellations;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+
+        // Tickets currently sold: booked minus cancelled
+        public long getTickets() {
+            return tickets;
+        }
+
+        public long getBookings() {
+            return bookings;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        // Bookings that have not been cancelled
+        public long getActiveBookings() {
+            return bookings - cancellations;
+        }
+    }
+
+    // Result of one aggregation
+    public static class Totals {
+        private final Map<String, EventTotals> events;
+        private final long totalTickets;
+        private final long rows;
+        private final long bytes;
+
+        Totals(Map<String, EventTotals> events, long totalTickets, long rows, long bytes) {
+            this.events = events;
+            this.totalTickets = totalTickets;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        // Totals for the event, or null if it has no bookings
+        public EventTotals getEvent(String eventName) {
+            return events.get(eventName);
+        }
+
+        // All events with bookings, by name
+        public List<EventTotals> getEvents() {
+            List<EventTotals> sorted = new ArrayList<>(events.values());
+            sorted.sort(Comparator.comparing(EventTotals::getEventName));
+            return sorted;
+        }
+
+        public long getTotalTickets() {
+            return totalTickets;
+        }
+
+        // Parsed booking and tombstone lines
+        public long getRows() {
+            return rows;
+        }
+
+        // Bytes of the log covered by this aggregation
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private BookingAggregator() {
+    }
+
+    public static Totals aggregate(File file) throws IOException {
+        return aggregate(file, !SEQUENTIAL);
+    }
+
+    public static Totals aggregate(File file, boolean parallel) throws IOException {
+        return aggregate(file, file.length(), parallel);
+    }
+
+    // Totals over the lines before the given offset (which must be a line start or the end of the file)
+    public static Totals aggregate(File file, long end, boolean parallel) throws IOException {
+        if (!file.exists() || end <= 0) {
+            return new Totals(new HashMap<>(), 0, 0, 0);
+        }
+        long[] bounds = parallel ? split(file, end) : new long[]{0, end};
+        Partial total;
+        try {
+            total = bounds.length > 2
+                    ? ForkJoinPool.commonPool().invoke(new ChunkTask(file, bounds, 0, bounds.length - 1))
+                    : scan(file, bounds[0], bounds[bounds.length - 1]);
+        } catch (UncheckedIOException e) {
+            // Fork-join may rethrow a copy of the worker's exception with the original as its cause
+            Throwable cause = e;
+            while (!(cause instanceof IOException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(e);
+        }
+        Metrics.ROWS_SCANNED.add(total.rows);
+        Metrics.BYTES_READ.add(bounds[bounds.length - 1]);
+        Map<String, EventTotals> events = new HashMap<>();
+        for (EventTotals totals : total.events) {
+            events.put(totals.getEventName(), totals);
+        }
+        return new Totals(events, total.tickets, total.rows, bounds[bounds.length - 1]);
+    }
+
+    // Chunk boundaries: 0, then the byte after the first newline at or past each even split point, then the end
+    private static long[] split(File file, long size) throws IOException {
+        int workers = ForkJoinPool.getCommonPoolParallelism() + 1;
+        int chunks = (int) Math.max(1, Math.min((long) workers * CHUNKS_PER_WORKER, size / MIN_CHUNK_SIZE));
+        long[] bounds = new long[chunks + 1];
+        int count = 1;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunks; i++) {
+                long boundary = nextLineStart(channel, buffer, size * i / chunks, size);
+                if (boundary > bounds[count - 1] && boundary < size) {
+                    bounds[count++] = boundary;
+                }
+            }
+        }
+        bounds[count++] = size;
+        long[] result = new long[count];
+        System.arraycopy(bounds, 0, result, 0, count);
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Scan one range into fresh accumulators
+    private static Partial scan(File file, long start, long end) throws IOException {
+        Partial partial = new Partial();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (RecordScanner scanner = new RecordScanner(file, start, end, false)) {
+            long lines = 0;
+            while (scanner.next()) {
+                lines++;
+                // username,event,ticketCount,...
+                int tickets = scanner.parseInt(2);
+                if (tickets == Integer.MIN_VALUE) {
+                    continue;
+                }
+                EventTotals totals = partial.table.get(scanner, 1);
+                if (totals == null) {
+                    totals = new EventTotals(scanner.fieldString(1));
+                    partial.add(totals);
+                }
+                totals.add(tickets);
+                partial.tickets += tickets;
+                partial.rows++;
+            }
+            scan.finish(file, scanner.position() - start, lines);
+        }
+        return partial;
+    }
+
+    // Accumulators owned by one worker until they are merged
+    private static class Partial {
+        final RecordScanner.KeyTable<EventTotals> table = new RecordScanner.KeyTable<>();
+        final List<EventTotals> events = new ArrayList<>();
+        final Map<String, EventTotals> byName = new HashMap<>();
+        long tickets;
+        long rows;
+
+        void add(EventTotals totals) {
+            table.put(totals.getEventName(), totals);
+            events.add(totals);
+            byName.put(totals.getEventName(), totals);
+        }
+
+        Partial merge(Partial other) {
+            for (EventTotals totals : other.events) {
+                EventTotals mine = byName.get(totals.getEventName());
+                if (mine == null) {
+                    add(totals);
+                } else {
+                    mine.merge(totals);
+                }
+            }
+            tickets += other.tickets;
+            rows += other.rows;
+            return this;
+        }
+    }
+
+    // Splits the chunk range in halves until one chunk is left, then scans it
+    private static class ChunkTask extends RecursiveTask<Partial> {
+        private final File file;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(File file, long[] bounds, int from, int to) {
+            this.file = file;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from == 1) {
+                try {
+                    return scan(file, bounds[from], bounds[to]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(file, bounds, from, middle);
+            left.fork();
+            Partial right = new ChunkTask(file, bounds, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
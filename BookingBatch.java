@@ -0,0 +1,181 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A group booking: rows of (member, event, seats) that BookingService.bookBatch commits together
+// or not at all. readCsv loads one from a spreadsheet export with the columns
+//     username,event,seat[,seat...]
+// where the seats may also share one cell ("A1 A2", "A1;A2" or a quoted "A1,A2"). A header row
+// starting with "username" or "user" and blank lines are skipped. Rows that cannot be parsed are
+// kept as rejections, so the whole file is reported in one go.
+public class BookingBatch {
+
+    private final List<Row> rows = new ArrayList<>();
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    // One booking to make; line is the CSV line number (or position in the batch) used in reports
+    public static class Row {
+        private final int line;
+        private final String username;
+        private final String eventName;
+        private final List<String> seats;
+
+        Row(int line, String username, String eventName, List<String> seats) {
+            this.line = line;
+            this.username = username;
+            this.eventName = eventName;
+            this.seats = seats;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+
+        public List<String> getSeats() {
+            return seats;
+        }
+    }
+
+    public static class Rejection {
+        private final int line;
+        private final String message;
+
+        Rejection(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + message;
+        }
+    }
+
+    // Outcome of bookBatch: the booking IDs in row order if committed, otherwise every rejected row
+    public static class Result {
+        private final List<String> bookingIds;
+        private final List<Rejection> rejections;
+
+        Result(List<String> bookingIds, List<Rejection> rejections) {
+            this.bookingIds = bookingIds;
+            this.rejections = rejections;
+        }
+
+        public boolean isCommitted() {
+            return rejections.isEmpty();
+        }
+
+        public List<String> getBookingIds() {
+            return bookingIds;
+        }
+
+        public List<Rejection> getRejections() {
+            return rejections;
+        }
+    }
+
+    public void add(String username, String eventName, List<String> seats) {
+        rows.add(new Row(rows.size() + rejections.size() + 1, username, eventName, seats));
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    // Rows rejected while reading the batch
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    public int size() {
+        return rows.size() + rejections.size();
+    }
+
+    public static BookingBatch readCsv(File file) throws IOException {
+        BookingBatch batch = new BookingBatch();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1); // byte order mark written by some spreadsheets
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                String username = fields.get(0).trim();
+                if (lineNumber == 1 && (username.equalsIgnoreCase("username") || username.equalsIgnoreCase("user"))) {
+                    continue;
+                }
+                if (fields.size() < 3) {
+                    batch.rejections.add(new Rejection(lineNumber, "Expected username, event and seats."));
+                    continue;
+                }
+                String eventName = fields.get(1).trim();
+                List<String> seats = new ArrayList<>();
+                for (int i = 2; i < fields.size(); i++) {
+                    for (String seat : fields.get(i).split("[,; ]+")) {
+                        if (!seat.isEmpty()) {
+                            seats.add(seat.toUpperCase());
+                        }
+                    }
+                }
+                if (username.isEmpty() || eventName.isEmpty() || seats.isEmpty()) {
+                    batch.rejections.add(new Rejection(lineNumber, "Expected username, event and seats."));
+                    continue;
+                }
+                batch.rows.add(new Row(lineNumber, username, eventName, seats));
+            }
+        }
+        return batch;
+    }
+
+    // Fields of one CSV line; double quotes group commas and "" is a literal quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
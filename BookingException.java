@@ -0,0 +1,7 @@
+// A booking that was rejected for a business reason; the message is shown to the user as is
+public class BookingException extends Exception {
+
+    public BookingException(String message) {
+        super(message);
+    }
+}
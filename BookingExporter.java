@@ -0,0 +1,290 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+
+// Streams the active bookings in ticket_bookings.txt to a CSV or JSON Lines file.
+// The log is read through a fixed 64 KB buffer and each record is transformed and written
+// straight out through a fixed 64 KB writer, so memory does not grow with the history; only
+// the keys of cancelled bookings are held, and the compactor keeps that set small.
+// The export goes to a temp file that is renamed into place once complete.
+public class BookingExporter {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+
+    public enum Format {
+        CSV, JSONL
+    }
+
+    // The two AdminPanel listings, with the same columns as their table views
+    public enum Report {
+        EVENT_REPORT(BookingIndex.Column.EVENT, BookingIndex.Column.TICKETS, BookingIndex.Column.SEATS, BookingIndex.Column.BOOKING_ID),
+        MEMBER_DETAILS(BookingIndex.Column.USER, BookingIndex.Column.EVENT, BookingIndex.Column.TICKETS,
+                BookingIndex.Column.SEATS, BookingIndex.Column.BOOKING_ID, BookingIndex.Column.TIME);
+
+        private final BookingIndex.Column[] columns;
+
+        Report(BookingIndex.Column... columns) {
+            this.columns = columns;
+        }
+
+        public BookingIndex.Column[] getColumns() {
+            return columns;
+        }
+    }
+
+    // Called from the exporting thread about four times a second and once at the end
+    public interface ProgressListener {
+        void progress(Progress progress);
+    }
+
+    public static class Progress {
+        private final long rows;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedNanos;
+
+        Progress(long rows, long bytesRead, long totalBytes, long elapsedNanos) {
+            this.rows = rows;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public double getPercent() {
+            return totalBytes == 0 ? 100.0 : bytesRead * 100.0 / totalBytes;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytesRead * 1e9 / elapsedNanos / (1024.0 * 1024.0);
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %.1f%% of log, %.0f rows/s, %.1f MB/s", rows, getPercent(), getRowsPerSecond(), getMegabytesPerSecond());
+        }
+    }
+
+    private BookingExporter() {
+    }
+
+    // Export the report; returns the final progress (rows written, bytes read, throughput)
+    public static Progress export(File log, File output, Report report, Format format, ProgressListener listener) throws IOException {
+        long started = System.nanoTime();
+        long totalBytes = log.length();
+        Set<String> cancelled = BookingLog.readCancelledKeys(log);
+        BookingIndex.Column[] columns = report.getColumns();
+        File temp = new File(output.getPath() + ".part");
+        long[] rows = new long[1];
+        long[] bytesRead = new long[1];
+        long[] lastReport = {started};
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+            if (format == Format.CSV) {
+                writeCsvHeader(writer, columns);
+            }
+            BookingLog.forEachLine(log, (offset, line) -> {
+                bytesRead[0] = offset + line.getBytes(StandardCharsets.UTF_8).length + 1; // the line and its newline
+                BookingRecord record = BookingRecord.parse(line);
+                if (record != null && !record.isCancellation() && !cancelled.contains(record.getKey())) {
+                    if (format == Format.CSV) {
+                        writeCsv(writer, columns, record);
+                    } else {
+                        writeJson(writer, columns, record);
+                    }
+                    rows[0]++;
+                }
+                long now = System.nanoTime();
+                if (listener != null && now - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport[0] = now;
+                    listener.progress(new Progress(rows[0], bytesRead[0], totalBytes, now - started));
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Export cancelled");
+                }
+            });
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Progress done = new Progress(rows[0], bytesRead[0], bytesRead[0], System.nanoTime() - started);
+        if (listener != null) {
+            listener.progress(done);
+        }
+        return done;
+    }
+
+    private static void writeCsvHeader(Writer writer, BookingIndex.Column[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, columns[i].getHeader());
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsv(Writer writer, BookingIndex.Column[] columns, BookingRecord record) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (columns[i] == BookingIndex.Column.TICKETS) {
+                writer.write(Integer.toString(record.getTicketCount()));
+            } else {
+                writeCsvField(writer, value(columns[i], record));
+            }
+        }
+        writer.write('\n');
+    }
+
+    // Quote fields with separators or quotes (seat lists always contain commas)
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static void writeJson(Writer writer, BookingIndex.Column[] columns, BookingRecord record) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeJsonString(writer, jsonName(columns[i]));
+            writer.write(':');
+            if (columns[i] == BookingIndex.Column.TICKETS) {
+                writer.write(Integer.toString(record.getTicketCount()));
+            } else if (columns[i] == BookingIndex.Column.SEATS) {
+                writeJsonSeats(writer, record.getSeatList());
+            } else {
+                writeJsonString(writer, value(columns[i], record));
+            }
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeJsonSeats(Writer writer, Iterable<String> seats) throws IOException {
+        writer.write('[');
+        boolean first = true;
+        for (String seat : seats) {
+            if (!first) {
+                writer.write(',');
+            }
+            writeJsonString(writer, seat);
+            first = false;
+        }
+        writer.write(']');
+    }
+
+    // JSON string literal with escapes; also used by BookingServer
+    static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String jsonName(BookingIndex.Column column) {
+        switch (column) {
+            case USER:
+                return "user";
+            case EVENT:
+                return "event";
+            case TICKETS:
+                return "tickets";
+            case SEATS:
+                return "seats";
+            case BOOKING_ID:
+                return "bookingId";
+            default:
+                return "time";
+        }
+    }
+
+    private static String value(BookingIndex.Column column, BookingRecord record) {
+        switch (column) {
+            case USER:
+                return record.getUsername();
+            case EVENT:
+                return record.getEventName();
+            case TICKETS:
+                return Integer.toString(record.getTicketCount());
+            case SEATS:
+                return record.getSeats();
+            case BOOKING_ID:
+                return record.getBookingId();
+            default:
+                return record.getTimestamp();
+        }
+    }
+
+    // Command-line export for scripted reconciliation: <events|members> <csv|jsonl> <output file> [log file]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java BookingExporter <events|members> <csv|jsonl> <output file> [log file]");
+            return;
+        }
+        Report report = "members".equalsIgnoreCase(args[0]) ? Report.MEMBER_DETAILS : Report.EVENT_REPORT;
+        Format format = "jsonl".equalsIgnoreCase(args[1]) ? Format.JSONL : Format.CSV;
+        File log = new File(args.length > 3 ? args[3] : "ticket_bookings.txt");
+        Progress done = export(log, new File(args[2]), report, format, progress -> System.out.println(progress));
+        System.out.println(String.format("Exported %d rows in %.2f s", done.getRows(), done.getSeconds()));
+    }
+}
@@ -0,0 +1,94 @@
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unique, time-ordered booking IDs without locks. An ID is a 63-bit number, Snowflake style:
+//     41 bits milliseconds since 2024-01-01 UTC | 10 bits node | 12 bits sequence
+// written as "B" and 13 Crockford base-32 digits, so IDs are as short as the old "B" + millis ones,
+// sort as strings in the order they were issued and are safe in CSV and URLs.
+// The generator keeps the last timestamp and sequence in one AtomicLong. Within a millisecond the
+// sequence counts up; when it runs out (4096 IDs in one millisecond) or the clock goes backwards,
+// the generator carries on from the last timestamp it used instead of waiting, so IDs never repeat
+// or go down and the clock catches up again once the burst is over.
+// Each process writing to a shared booking log needs its own node number: -Dbooking.id.node=0..1023.
+// Uniqueness across restarts assumes the clock is not set back by more than the time the process was down.
+public class BookingIdGenerator {
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final String DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int ENCODED_LENGTH = 13;
+    private static final BookingIdGenerator INSTANCE = new BookingIdGenerator(Integer.getInteger("booking.id.node", 0));
+
+    private final long node;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last ID issued
+    private final AtomicLong last = new AtomicLong();
+
+    BookingIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Booking ID node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public static BookingIdGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    // A new booking ID, e.g. "B0A8S82T4C0M00"
+    public String nextId() {
+        return encode(next());
+    }
+
+    // A new ID as a number
+    public long next() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            // A new millisecond starts a new sequence; otherwise count up, carrying into the timestamp
+            long candidate = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, candidate)) {
+                long millis = candidate >>> SEQUENCE_BITS;
+                long sequence = candidate & ((1 << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    // "B" followed by the ID as fixed-width base 32, most significant digit first
+    public static String encode(long id) {
+        char[] text = new char[ENCODED_LENGTH + 1];
+        text[0] = 'B';
+        for (int i = ENCODED_LENGTH; i > 0; i--) {
+            text[i] = DIGITS.charAt((int) (id & 31));
+            id >>>= 5;
+        }
+        return new String(text);
+    }
+
+    // The number behind an ID from encode, or -1 if the text is not in that form
+    public static long decode(String bookingId) {
+        if (bookingId.length() != ENCODED_LENGTH + 1 || bookingId.charAt(0) != 'B') {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 1; i <= ENCODED_LENGTH; i++) {
+            int digit = DIGITS.indexOf(Character.toUpperCase(bookingId.charAt(i)));
+            if (digit < 0) {
+                return -1;
+            }
+            id = (id << 5) | digit;
+        }
+        return id < 0 ? -1 : id;
+    }
+
+    // When the ID was issued (the time it carries, which can run slightly ahead during bursts)
+    public static Instant issuedAt(long id) {
+        return Instant.ofEpochMilli(EPOCH + (id >>> (NODE_BITS + SEQUENCE_BITS)));
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Persistent hash index from booking ID to the offset of its line in ticket_bookings.txt and
+// whether it is still active, so finding one booking is a few probes and a positioned read
+// instead of a scan of the whole log.
+// The table lives in a memory-mapped file (ticket_bookings.bid) of fixed-size slots with linear
+// probing, doubled when it gets 70% full. Like the other indexes it tails the log: bookings
+// appended by logTicketBooking are added and cancellation tombstones flip their slot's status on
+// the next lookup, and a rewritten (compacted) log is re-indexed from the start. The header's
+// log offset is only advanced after the slots are forced to disk, so after a crash the tail is
+// simply applied again (adding a slot that is already there is a no-op).
+public class BookingIdIndex {
+
+    public static final int ACTIVE = 1;
+    public static final int CANCELLED = 2;
+    public static final int REPLACED = 3; // a later booking reused the ID for the same user
+
+    private static final int MAGIC = 0x42494431; // "BID1"
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 24; // id hash, line offset, user hash, status
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final double MAX_LOAD = 0.7;
+    private static final Metrics.Operation TAIL = Metrics.operation("bookingIdIndexTail");
+    private static final BookingIdIndex INSTANCE = new BookingIdIndex(new File("ticket_bookings.txt"), new File("ticket_bookings.bid"));
+
+    private final File logFile;
+    private final File indexFile;
+    private MappedByteBuffer table;
+    private int capacity;
+    private long count;
+    private long offset;
+    private long checksum;
+    private long lastModified = -1;
+
+    // A booking found by ID: its record, where its line starts and its status
+    public static class Match {
+        private final BookingRecord record;
+        private final long offset;
+        private final int status;
+
+        Match(BookingRecord record, long offset, int status) {
+            this.record = record;
+            this.offset = offset;
+            this.status = status;
+        }
+
+        public BookingRecord getRecord() {
+            return record;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public boolean isActive() {
+            return status == ACTIVE;
+        }
+
+        public String getStatusText() {
+            switch (status) {
+                case ACTIVE:
+                    return "Active";
+                case CANCELLED:
+                    return "Cancelled";
+                default:
+                    return "Replaced by a later booking";
+            }
+        }
+    }
+
+    BookingIdIndex(File logFile, File indexFile) {
+        this.logFile = logFile;
+        this.indexFile = indexFile;
+    }
+
+    public static BookingIdIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // Every booking logged with this ID, in log order; usually one
+    public List<Match> lookup(String bookingId) throws IOException {
+        long hash = idHash(bookingId);
+        for (int attempt = 0; ; attempt++) {
+            long[] offsets;
+            int[] statuses;
+            long indexedOffset;
+            long indexedChecksum;
+            synchronized (this) {
+                refresh();
+                int found = 0;
+                offsets = new long[4];
+                statuses = new int[4];
+                for (int slot = home(hash); slotHash(slot) != 0; slot = next(slot)) {
+                    if (slotHash(slot) == hash) {
+                        if (found == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, found * 2);
+                            statuses = Arrays.copyOf(statuses, found * 2);
+                        }
+                        offsets[found] = table.getLong(slotPosition(slot) + 8);
+                        statuses[found] = table.getInt(slotPosition(slot) + 20);
+                        found++;
+                    }
+                }
+                offsets = Arrays.copyOf(offsets, found);
+                statuses = Arrays.copyOf(statuses, found);
+                indexedOffset = offset;
+                indexedChecksum = checksum;
+            }
+            List<Match> matches = read(bookingId, offsets, statuses);
+            // A line holding a different ID is a hash collision, unless the log was rewritten meanwhile
+            if (matches != null && logFile.length() >= indexedOffset && BookingLog.checksumBefore(logFile, indexedOffset) == indexedChecksum) {
+                matches.sort((a, b) -> Long.compare(a.offset, b.offset));
+                return matches;
+            }
+            if (attempt > 0) {
+                throw new IOException("Bookings changed while they were being read; please try again.");
+            }
+        }
+    }
+
+    // The user's active booking with this ID, or null
+    public BookingRecord findActive(String username, String bookingId) throws IOException {
+        BookingRecord active = null;
+        for (Match match : lookup(bookingId)) {
+            if (match.isActive() && match.getRecord().getUsername().equals(username)) {
+                active = match.getRecord();
+            }
+        }
+        return active;
+    }
+
+    // Bring the table up to date with the log, parsing only the appended bytes
+    private void refresh() throws IOException {
+        if (table == null) {
+            open();
+        }
+        long size = logFile.length();
+        long modified = logFile.lastModified();
+        if (size == offset && modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        if (size < offset || (offset > 0 && checksum != BookingLog.checksumBefore(logFile, offset))) {
+            create(INITIAL_CAPACITY);
+        }
+        if (logFile.exists() && logFile.length() > offset) {
+            tail();
+            table.force();
+            writeHeader();
+            table.force();
+        }
+    }
+
+    private void tail() throws IOException {
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (RecordScanner scanner = new RecordScanner(logFile, offset, false);
+             FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            long rows = 0;
+            while (scanner.next()) {
+                rows++;
+                // username,event,ticketCount,timestamp,seats...,bookingId
+                if (scanner.fieldCount() < 6) {
+                    continue;
+                }
+                int tickets = scanner.parseInt(2);
+                String username;
+                String bookingId;
+                if (tickets != Integer.MIN_VALUE) {
+                    username = scanner.fieldString(0).trim();
+                    bookingId = scanner.fieldString(scanner.lastField()).trim();
+                } else {
+                    BookingRecord record = BookingRecord.parse(scanner.lineString()); // e.g. padded numbers
+                    if (record == null) {
+                        continue;
+                    }
+                    tickets = record.getTicketCount();
+                    username = record.getUsername();
+                    bookingId = record.getBookingId();
+                }
+                if (tickets < 0) {
+                    cancel(channel, bookingId, username);
+                } else {
+                    insert(channel, bookingId, username, scanner.lineStart());
+                }
+            }
+            Metrics.ROWS_SCANNED.add(rows);
+            Metrics.BYTES_READ.add(scanner.position() - offset);
+            scan.finish(logFile, scanner.position() - offset, rows);
+            offset = scanner.position();
+            checksum = BookingLog.checksumBefore(logFile, offset);
+            TAIL.record(start);
+        } catch (IOException e) {
+            TAIL.recordError(start);
+            throw e;
+        }
+    }
+
+    // Add a booking line; an earlier active booking of the same user with the same ID is replaced,
+    // as in BookingLog.readActive
+    private void insert(FileChannel channel, String bookingId, String username, long lineOffset) throws IOException {
+        long hash = idHash(bookingId);
+        int userHash = username.hashCode();
+        int slot = home(hash);
+        for (; slotHash(slot) != 0; slot = next(slot)) {
+            int position = slotPosition(slot);
+            if (slotHash(slot) != hash) {
+                continue;
+            }
+            if (table.getLong(position + 8) == lineOffset) {
+                return; // already added before a crash
+            }
+            if (table.getInt(position + 16) == userHash && table.getInt(position + 20) == ACTIVE
+                    && isBookingOf(channel, table.getLong(position + 8), bookingId, username)) {
+                table.putInt(position + 20, REPLACED);
+            }
+        }
+        putSlot(table, slotPosition(slot), hash, lineOffset, userHash, ACTIVE);
+        if (++count > capacity * MAX_LOAD) {
+            grow();
+        }
+    }
+
+    // A tombstone cancels every active booking of the user with the ID
+    private void cancel(FileChannel channel, String bookingId, String username) throws IOException {
+        long hash = idHash(bookingId);
+        int userHash = username.hashCode();
+        for (int slot = home(hash); slotHash(slot) != 0; slot = next(slot)) {
+            int position = slotPosition(slot);
+            if (slotHash(slot) == hash && table.getInt(position + 16) == userHash && table.getInt(position + 20) == ACTIVE
+                    && isBookingOf(channel, table.getLong(position + 8), bookingId, username)) {
+                table.putInt(position + 20, CANCELLED);
+            }
+        }
+    }
+
+    // The hashes only narrow the candidates: two users can share a legacy booking ID and have
+    // colliding username hashes, so the line itself decides whose booking a slot is
+    private static boolean isBookingOf(FileChannel channel, long lineOffset, String bookingId, String username) throws IOException {
+        String line = BookingLog.readLineAt(channel, lineOffset);
+        BookingRecord record = line == null ? null : BookingRecord.parse(line);
+        return record != null && record.getUsername().equals(username) && record.getBookingId().equals(bookingId);
+    }
+
+    // The matches whose lines still hold the booking ID, or null if the log is gone
+    private List<Match> read(String bookingId, long[] offsets, int[] statuses) throws IOException {
+        List<Match> matches = new ArrayList<>(offsets.length);
+        if (offsets.length == 0) {
+            return matches;
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i < offsets.length; i++) {
+                String line = BookingLog.readLineAt(channel, offsets[i]);
+                BookingRecord record = line == null ? null : BookingRecord.parse(line);
+                if (record != null && !record.isCancellation() && record.getBookingId().equals(bookingId)) {
+                    matches.add(new Match(record, offsets[i], statuses[i]));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return null; // replaced between the lookup and the read
+        }
+        return matches;
+    }
+
+    // Map the saved table, or start an empty one if there is none or it is unreadable
+    private void open() throws IOException {
+        if (indexFile.exists() && indexFile.length() >= HEADER_SIZE) {
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                int savedCapacity = header.getInt(4);
+                if (header.getInt(0) == MAGIC && Integer.bitCount(savedCapacity) == 1
+                        && channel.size() == HEADER_SIZE + (long) savedCapacity * SLOT_SIZE) {
+                    table = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                    capacity = savedCapacity;
+                    count = table.getLong(8);
+                    offset = table.getLong(16);
+                    checksum = table.getLong(24);
+                    return;
+                }
+            }
+            System.out.println("Ignoring unreadable booking ID index: " + indexFile);
+        }
+        create(INITIAL_CAPACITY);
+    }
+
+    // Replace the table with an empty one covering none of the log
+    private void create(int newCapacity) throws IOException {
+        count = 0;
+        offset = 0;
+        checksum = 0;
+        table = mapNew(indexFile, newCapacity);
+        capacity = newCapacity;
+        writeHeader();
+    }
+
+    // Rehash into a table twice the size, written next to the old one and renamed over it.
+    // The header keeps the offset already forced to disk, as the new slots are forced with it.
+    private void grow() throws IOException {
+        int newCapacity = capacity * 2;
+        File temp = new File(indexFile.getPath() + ".tmp");
+        MappedByteBuffer grown = mapNew(temp, newCapacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            long hash = slotHash(slot);
+            if (hash == 0) {
+                continue;
+            }
+            int position = slotPosition(slot);
+            int target = (int) (hash & (newCapacity - 1));
+            while (grown.getLong(HEADER_SIZE + target * SLOT_SIZE) != 0) {
+                target = (target + 1) & (newCapacity - 1);
+            }
+            putSlot(grown, HEADER_SIZE + target * SLOT_SIZE, hash, table.getLong(position + 8), table.getInt(position + 16), table.getInt(position + 20));
+        }
+        grown.putInt(0, MAGIC);
+        grown.putInt(4, newCapacity);
+        grown.putLong(8, count);
+        grown.putLong(16, table.getLong(16));
+        grown.putLong(24, table.getLong(24));
+        grown.force();
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        table = grown;
+        capacity = newCapacity;
+    }
+
+    private static MappedByteBuffer mapNew(File file, int slots) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+        }
+    }
+
+    private void writeHeader() {
+        table.putInt(0, MAGIC);
+        table.putInt(4, capacity);
+        table.putLong(8, count);
+        table.putLong(16, offset);
+        table.putLong(24, checksum);
+    }
+
+    private static void putSlot(MappedByteBuffer buffer, int position, long hash, long lineOffset, int userHash, int status) {
+        buffer.putLong(position + 8, lineOffset);
+        buffer.putInt(position + 16, userHash);
+        buffer.putInt(position + 20, status);
+        buffer.putLong(position, hash);
+    }
+
+    private long slotHash(int slot) {
+        return table.getLong(slotPosition(slot));
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private int home(long hash) {
+        return (int) (hash & (capacity - 1));
+    }
+
+    private int next(int slot) {
+        return (slot + 1) & (capacity - 1);
+    }
+
+    // 64-bit FNV-1a of the ID, mixed so the low bits used for the slot are well spread; never 0 (empty)
+    static long idHash(String bookingId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < bookingId.length(); i++) {
+            hash ^= bookingId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 32;
+        return hash != 0 ? hash : 1;
+    }
+}
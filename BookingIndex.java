@@ -0,0 +1,253 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Line-offset index over the active bookings in ticket_bookings.txt, for views that page rows in
+// on demand instead of holding the whole history as text.
+// Each row keeps only its byte offset plus compact sort keys: usernames and event names are
+// dictionary-encoded, tickets and booking time are plain ints. Filtering by event or user and
+// sorting work on those arrays; the full record is read back from the file only for rows shown.
+// The index keeps the log open, so a snapshot stays readable after the compactor swaps the file.
+public class BookingIndex implements Closeable {
+
+    public enum Column {
+        USER("User", true),
+        EVENT("Event", true),
+        TICKETS("Tickets", true),
+        SEATS("Seats", false),
+        BOOKING_ID("Booking ID", false),
+        TIME("Time", true);
+
+        private final String header;
+        private final boolean sortable;
+
+        Column(String header, boolean sortable) {
+            this.header = header;
+            this.sortable = sortable;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public boolean isSortable() {
+            return sortable;
+        }
+    }
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final FileChannel channel;
+    private final int size;
+    private final long[] offsets;
+    private final int[] users;
+    private final int[] events;
+    private final int[] tickets;
+    private final int[] times;
+    private final String[] userNames;
+    private final String[] eventNames;
+
+    private BookingIndex(FileChannel channel, Builder builder) {
+        this.channel = channel;
+        this.size = builder.size;
+        this.offsets = Arrays.copyOf(builder.offsets, size);
+        this.users = Arrays.copyOf(builder.users, size);
+        this.events = Arrays.copyOf(builder.events, size);
+        this.tickets = Arrays.copyOf(builder.tickets, size);
+        this.times = Arrays.copyOf(builder.times, size);
+        this.userNames = builder.userNames.toArray(new String[0]);
+        this.eventNames = builder.eventNames.toArray(new String[0]);
+    }
+
+    // Index the active bookings: one pass to find cancelled bookings, one to record the rest
+    public static BookingIndex build(File file) throws IOException {
+        Set<String> cancelled = BookingLog.readCancelledKeys(file);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            Builder builder = new Builder();
+            BookingLog.forEachLine(file, (offset, line) -> {
+                BookingRecord record = BookingRecord.parse(line);
+                if (record != null && !record.isCancellation() && !cancelled.contains(record.getKey())) {
+                    builder.add(offset, record);
+                }
+            });
+            return new BookingIndex(channel, builder);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Rows whose column value contains the text (case-insensitive), in log order.
+    // Only USER and EVENT can be filtered; a blank text selects every row.
+    public int[] select(Column column, String text) {
+        if (text == null || text.trim().isEmpty()) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        String needle = text.trim().toLowerCase();
+        String[] names = column == Column.USER ? userNames : eventNames;
+        int[] ids = column == Column.USER ? users : events;
+        boolean[] matches = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            matches[i] = names[i].toLowerCase().contains(needle);
+        }
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (matches[ids[i]]) {
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // Sort rows in place by a sortable column; ties keep log order
+    public void sort(int[] rows, Column column, boolean ascending) {
+        int[] keys = sortKeys(column);
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int key = ascending ? keys[rows[i]] : ~keys[rows[i]];
+            packed[i] = ((long) key << 32) | rows[i];
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) packed[i];
+        }
+    }
+
+    // Read one row back from the log
+    public BookingRecord read(int row) throws IOException {
+        String line = BookingLog.readLineAt(channel, offsets[row]);
+        return line == null ? null : BookingRecord.parse(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int[] sortKeys(Column column) {
+        switch (column) {
+            case USER:
+                return remap(users, ranks(userNames));
+            case EVENT:
+                return remap(events, ranks(eventNames));
+            case TICKETS:
+                return tickets;
+            case TIME:
+                return times;
+            default:
+                throw new IllegalArgumentException("Cannot sort by " + column.getHeader());
+        }
+    }
+
+    // Alphabetical rank of each dictionary entry
+    private static int[] ranks(String[] names) {
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> names[a].compareToIgnoreCase(names[b]));
+        int[] ranks = new int[names.length];
+        for (int i = 0; i < order.length; i++) {
+            ranks[order[i]] = i;
+        }
+        return ranks;
+    }
+
+    private int[] remap(int[] ids, int[] ranks) {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ranks[ids[i]];
+        }
+        return keys;
+    }
+
+    private static class Builder {
+        int size;
+        long[] offsets = new long[1024];
+        int[] users = new int[1024];
+        int[] events = new int[1024];
+        int[] tickets = new int[1024];
+        int[] times = new int[1024];
+        final List<String> userNames = new ArrayList<>();
+        final List<String> eventNames = new ArrayList<>();
+        final Map<String, Integer> userIds = new HashMap<>();
+        final Map<String, Integer> eventIds = new HashMap<>();
+
+        void add(long offset, BookingRecord record) {
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                users = Arrays.copyOf(users, capacity);
+                events = Arrays.copyOf(events, capacity);
+                tickets = Arrays.copyOf(tickets, capacity);
+                times = Arrays.copyOf(times, capacity);
+            }
+            offsets[size] = offset;
+            users[size] = id(userIds, userNames, record.getUsername());
+            events[size] = id(eventIds, eventNames, record.getEventName());
+            tickets[size] = record.getTicketCount();
+            times[size] = epochSeconds(record.getTimestamp());
+            size++;
+        }
+
+        private static int id(Map<String, Integer> ids, List<String> names, String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                ids.put(name, id);
+                names.add(name);
+            }
+            return id;
+        }
+
+        // Seconds since 2000-01-01 keep the key in an int; unreadable timestamps sort first
+        private static int epochSeconds(String timestamp) {
+            try {
+                LocalDateTime time;
+                if (timestamp.length() == 19) {
+                    // Fast path for yyyy-MM-dd HH:mm:ss, which is what the booking log writes
+                    time = LocalDateTime.of(digits(timestamp, 0, 4), digits(timestamp, 5, 7), digits(timestamp, 8, 10),
+                            digits(timestamp, 11, 13), digits(timestamp, 14, 16), digits(timestamp, 17, 19));
+                } else {
+                    time = LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
+                }
+                long seconds = time.toEpochSecond(ZoneOffset.UTC) - 946_684_800L;
+                return (int) Math.max(Integer.MIN_VALUE + 1, Math.min(Integer.MAX_VALUE, seconds));
+            } catch (DateTimeException e) {
+                return Integer.MIN_VALUE;
+            }
+        }
+
+        private static int digits(String text, int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new DateTimeException("Not a digit: " + c);
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+    }
+}
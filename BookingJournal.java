@@ -0,0 +1,259 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Append-only booking log with group commit.
+// Records are encoded to bytes by the caller and queued; a single committer thread gathers
+// everything that arrives within the commit window (or up to the batch limit), writes it with
+// one write and one force(), then completes each caller's future once its record is durable.
+// Commit listeners see every durable record, so in-memory aggregates can follow the log without reading it.
+// If a write or force() fails, the log is truncated back to where the batch began, so records
+// whose callers were told they failed never reappear after a restart; if even that fails, the
+// journal refuses all further commits rather than append after bytes of unknown state.
+public class BookingJournal {
+
+    private static final Metrics.Operation COMMIT = Metrics.operation("journalCommit");
+    private static final BookingJournal INSTANCE = new BookingJournal(
+            new File("ticket_bookings.txt"),
+            Long.getLong("booking.journal.windowMicros", 2000),
+            Integer.getInteger("booking.journal.maxBatch", 256));
+
+    private final File file;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final LinkedBlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final List<CommitListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long rewrites;
+    private FileChannel channel;
+    private Throwable broken; // set when a failed batch could not be truncated away
+
+    // Called on the committing thread, with the journal locked, for each batch that was forced to disk;
+    // must be quick, as the next commit waits for it
+    public interface CommitListener {
+        void committed(List<String> records);
+    }
+
+    private static class PendingRecord {
+        final List<String> records;
+        final byte[] bytes;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingRecord(List<String> records, byte[] bytes) {
+            this.records = records;
+            this.bytes = bytes;
+        }
+    }
+
+    BookingJournal(File file, long windowMicros, int maxBatch) {
+        this.file = file;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatch = Math.max(1, maxBatch);
+        Thread committer = new Thread(this::runCommitter, "booking-journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "booking-journal-flush"));
+    }
+
+    public static BookingJournal getInstance() {
+        return INSTANCE;
+    }
+
+    // Queue one record (without trailing newline); the future completes once it has been forced to disk
+    public CompletableFuture<Void> append(String record) {
+        PendingRecord pending = new PendingRecord(Collections.singletonList(record), (record + "\n").getBytes(StandardCharsets.UTF_8));
+        queue.add(pending);
+        return pending.durable;
+    }
+
+    // Queue several records as one unit: they go to disk in the same write and force(), so they
+    // become durable together and no other record is written between them
+    public CompletableFuture<Void> appendBatch(List<String> records) {
+        StringBuilder text = new StringBuilder(records.size() * 64);
+        for (String record : records) {
+            text.append(record).append('\n');
+        }
+        PendingRecord pending = new PendingRecord(records, text.toString().getBytes(StandardCharsets.UTF_8));
+        queue.add(pending);
+        return pending.durable;
+    }
+
+    // Deliver every record committed from now on to the listener. Returns the size of the log before
+    // the first of them: no commit is in progress here, so the bytes before that offset are exactly
+    // the records committed so far (unless getRewrites() shows the log was replaced since).
+    public synchronized long addCommitListener(CommitListener listener) {
+        listeners.add(listener);
+        return file.length();
+    }
+
+    public void removeCommitListener(CommitListener listener) {
+        listeners.remove(listener);
+    }
+
+    // How many times replaceLog has swapped in a rewritten log
+    public long getRewrites() {
+        return rewrites;
+    }
+
+    // Commit everything queued so far on the calling thread
+    public void flush() {
+        List<PendingRecord> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+    }
+
+    // Swap a rewritten log in place of the live one. Holding the commit lock, everything appended
+    // since the rewriter's snapshot is copied onto the replacement before an atomic rename, so no
+    // committed record is lost and new bookings only wait for the tail copy.
+    public synchronized void replaceLog(File replacement, long snapshotEnd) throws IOException {
+        flush();
+        try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(replacement.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = snapshotEnd;
+            long end = source.size();
+            while (position < end) {
+                position += source.transferTo(position, end - position, target);
+            }
+            target.force(true);
+        }
+        Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        rewrites++;
+        closeChannel();
+    }
+
+    private void runCommitter() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatch - batch.size());
+                        break;
+                    }
+                    PendingRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                // Last resort, so no caller waits forever on a batch that was never completed
+                System.out.println("Error in booking journal committer: " + e);
+                for (PendingRecord record : batch) {
+                    record.durable.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // One write and one force() for the whole batch
+    private synchronized void commit(List<PendingRecord> batch) {
+        long start = System.nanoTime();
+        FlightEvents.JournalCommit event = new FlightEvents.JournalCommit();
+        event.begin();
+        int size = 0;
+        for (PendingRecord record : batch) {
+            size += record.bytes.length;
+        }
+        long before = -1;
+        // Anything thrown here (not just I/O errors, e.g. running out of memory for the buffer)
+        // fails this batch only; the committer carries on with the next one
+        try {
+            if (broken != null) {
+                throw new IOException("Booking log is unavailable after a failed write: " + broken.getMessage(), broken);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (PendingRecord record : batch) {
+                buffer.put(record.bytes);
+            }
+            buffer.flip();
+            FileChannel out = openChannel();
+            before = out.size();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        } catch (Throwable e) {
+            COMMIT.recordError(start);
+            event.finish(file, batch.size(), size, false);
+            closeChannel();
+            if (before >= 0) {
+                discardFrom(before, e);
+            }
+            for (PendingRecord record : batch) {
+                record.durable.completeExceptionally(e);
+            }
+            return;
+        }
+        COMMIT.record(start);
+        event.finish(file, batch.size(), size, true);
+        if (!listeners.isEmpty()) {
+            List<String> records = new ArrayList<>(batch.size());
+            for (PendingRecord record : batch) {
+                records.addAll(record.records);
+            }
+            for (CommitListener listener : listeners) {
+                try {
+                    listener.committed(records);
+                } catch (Throwable e) {
+                    System.out.println("Error in booking journal listener: " + e);
+                }
+            }
+        }
+        for (PendingRecord record : batch) {
+            record.durable.complete(null);
+        }
+    }
+
+    // Cut off whatever part of a failed batch reached the file; its callers roll back their admissions
+    private void discardFrom(long end, Throwable cause) {
+        // A fresh channel, as the failure (e.g. an interrupt) may have closed the appending one
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            out.truncate(end);
+            out.force(true);
+        } catch (IOException e) {
+            System.out.println("Error discarding failed bookings, no further bookings will be logged: " + e.getMessage());
+            broken = cause;
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Error closing booking journal: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+// Read helpers for ticket_bookings.txt that honour cancellation tombstones
+public class BookingLog {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int CHECK_WINDOW = 64;
+    private static final int LINE_READ_SIZE = 512;
+    private static final Metrics.Operation READ_ACTIVE = Metrics.operation("readActiveBookings");
+
+    // Receives each complete line with the byte offset it starts at
+    public interface LineHandler {
+        void line(long offset, String line) throws IOException;
+    }
+
+    private BookingLog() {
+    }
+
+    // Bookings matching the filter that have not been cancelled, in log order
+    public static List<BookingRecord> readActive(File file, Predicate<BookingRecord> filter) throws IOException {
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        long rows = 0;
+        Map<String, BookingRecord> active = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows++;
+                BookingRecord record = BookingRecord.parse(line);
+                if (record == null || !filter.test(record)) {
+                    continue;
+                }
+                if (record.isCancellation()) {
+                    active.remove(record.getKey());
+                } else {
+                    active.put(record.getKey(), record);
+                }
+            }
+        } catch (IOException e) {
+            READ_ACTIVE.recordError(start);
+            throw e;
+        }
+        long bytes = file.length();
+        Metrics.ROWS_SCANNED.add(rows);
+        Metrics.BYTES_READ.add(bytes);
+        READ_ACTIVE.record(start);
+        scan.finish(file, bytes, rows);
+        return new ArrayList<>(active.values());
+    }
+
+    // Keys (see BookingRecord.getKey) of every cancelled booking; only tombstone lines are fully parsed
+    public static Set<String> readCancelledKeys(File file) throws IOException {
+        Set<String> cancelled = new HashSet<>();
+        forEachLine(file, (offset, line) -> {
+            if (!isTombstone(line)) {
+                return;
+            }
+            BookingRecord record = BookingRecord.parse(line);
+            if (record != null && record.isCancellation()) {
+                cancelled.add(record.getKey());
+            }
+        });
+        return cancelled;
+    }
+
+    // Stream the complete lines of the file through a fixed-size buffer
+    public static void forEachLine(File file, LineHandler handler) throws IOException {
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            ByteArrayOutputStream carry = new ByteArrayOutputStream();
+            long lineStart = 0;
+            long position = 0;
+            long rows = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        String line;
+                        if (carry.size() > 0) {
+                            carry.write(buffer, start, i - start);
+                            line = new String(carry.toByteArray(), StandardCharsets.UTF_8);
+                            carry.reset();
+                        } else {
+                            line = new String(buffer, start, i - start, StandardCharsets.UTF_8);
+                        }
+                        handler.line(lineStart, line);
+                        rows++;
+                        start = i + 1;
+                        lineStart = position + start;
+                    }
+                }
+                carry.write(buffer, start, read - start);
+                position += read;
+            }
+            // A trailing partial line is still being written; leave it out
+            Metrics.ROWS_SCANNED.add(rows);
+            Metrics.BYTES_READ.add(position);
+            scan.finish(file, position, rows);
+        }
+    }
+
+    // CRC of the bytes just before the offset, used by indexes that tail the log to notice it was
+    // rewritten (compacted) to the same or a larger size; -1 if the file is shorter or unreadable
+    static long checksumBefore(File file, long end) {
+        if (end == 0) {
+            return 0;
+        }
+        int length = (int) Math.min(CHECK_WINDOW, end);
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (in.length() < end) {
+                return -1;
+            }
+            byte[] bytes = new byte[length];
+            in.seek(end - length);
+            in.readFully(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // The complete line starting at the offset, or null if there is none; used by the indexes
+    // that keep line offsets to read single records
+    static String readLineAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_READ_SIZE);
+        while (true) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return null;
+            }
+            for (int i = buffer.position() - read; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return new String(buffer.array(), 0, i, StandardCharsets.UTF_8);
+                }
+            }
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    // Cheap pre-check on the ticket count field, so callers only parse lines that can be tombstones
+    static boolean isTombstone(String line) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second < 0) {
+            return false;
+        }
+        int i = second + 1;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i < line.length() && line.charAt(i) == '-';
+    }
+}
@@ -0,0 +1,160 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Background compaction of ticket_bookings.txt.
+// Once tombstones make up more than booking.compact.ratio of the log (and there are at least
+// booking.compact.minTombstones of them), the live bookings are rewritten into a new segment
+// and swapped in by BookingJournal.replaceLog. Bookings keep committing while the segment is
+// written; they only wait for the short copy of whatever was appended in the meantime.
+public class BookingLogCompactor {
+
+    private static final double RATIO = Double.parseDouble(System.getProperty("booking.compact.ratio", "0.3"));
+    private static final long MIN_TOMBSTONES = Long.getLong("booking.compact.minTombstones", 1000);
+    private static final long INTERVAL_SECONDS = Long.getLong("booking.compact.intervalSeconds", 60);
+    private static ScheduledExecutorService scheduler;
+
+    private final File logFile;
+    private final BookingJournal journal;
+    private final SoldTicketIndex index;
+
+    BookingLogCompactor(File logFile, BookingJournal journal, SoldTicketIndex index) {
+        this.logFile = logFile;
+        this.journal = journal;
+        this.index = index;
+    }
+
+    // Start the periodic check for the shared booking log (idempotent)
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        BookingLogCompactor compactor = new BookingLogCompactor(new File("ticket_bookings.txt"), BookingJournal.getInstance(), SoldTicketIndex.getInstance());
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "booking-log-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(compactor::compactIfNeeded, INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void compactIfNeeded() {
+        long records = index.getRecordCount();
+        long tombstones = index.getTombstoneCount();
+        if (tombstones >= MIN_TOMBSTONES && tombstones > records * RATIO) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("Error compacting bookings: " + e.getMessage());
+            }
+        }
+    }
+
+    // Rewrite the log without cancelled bookings or their tombstones
+    public void compact() throws IOException {
+        long snapshotEnd = lastLineEnd();
+        if (snapshotEnd == 0) {
+            return;
+        }
+        FlightEvents.LogRewrite event = new FlightEvents.LogRewrite();
+        event.begin();
+        // Pass 1: bookings cancelled within the snapshot
+        Set<String> cancelled = new HashSet<>();
+        try (BufferedReader reader = snapshotReader(snapshotEnd)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BookingRecord record = BookingRecord.parse(line);
+                if (record != null && record.isCancellation()) {
+                    cancelled.add(record.getKey());
+                }
+            }
+        }
+        // Pass 2: copy everything else into the new segment
+        File segment = new File(logFile.getPath() + ".compact");
+        try (BufferedReader reader = snapshotReader(snapshotEnd);
+             FileOutputStream out = new FileOutputStream(segment);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BookingRecord record = BookingRecord.parse(line);
+                if (record != null && cancelled.contains(record.getKey())) {
+                    continue;
+                }
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        long segmentSize = segment.length();
+        journal.replaceLog(segment, snapshotEnd);
+        event.finish(logFile, snapshotEnd, segmentSize, cancelled.size());
+        System.out.println("Compacted bookings: removed " + cancelled.size() + " cancelled booking(s).");
+    }
+
+    private BufferedReader snapshotReader(long snapshotEnd) throws IOException {
+        InputStream in = new BoundedInputStream(new FileInputStream(logFile), snapshotEnd);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // Offset just past the last complete line, so a record being appended right now is left alone
+    private long lastLineEnd() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "r")) {
+            long position = file.length();
+            byte[] buffer = new byte[4096];
+            while (position > 0) {
+                int length = (int) Math.min(buffer.length, position);
+                file.seek(position - length);
+                file.readFully(buffer, 0, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        return position - length + i + 1;
+                    }
+                }
+                position -= length;
+            }
+            return 0;
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+    }
+
+    // Stops reading at a fixed byte limit
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
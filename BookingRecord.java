@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// One line of ticket_bookings.txt: username,event,ticketCount,timestamp,seat1[,seat2...],bookingId.
+// Seats are themselves comma separated, so they span every field between the timestamp and the
+// booking ID, which is always the last field.
+// A cancellation is appended as a tombstone with the same layout and a negative ticket count,
+// so summing ticket counts over the log always gives the tickets currently sold.
+public class BookingRecord {
+
+    private final String username;
+    private final String eventName;
+    private final int ticketCount;
+    private final String timestamp;
+    private final String seats;
+    private final String bookingId;
+
+    public BookingRecord(String username, String eventName, int ticketCount, String timestamp, String seats, String bookingId) {
+        this.username = username;
+        this.eventName = eventName;
+        this.ticketCount = ticketCount;
+        this.timestamp = timestamp;
+        this.seats = seats;
+        this.bookingId = bookingId;
+    }
+
+    // Parse a booking line; returns null if it is malformed
+    public static BookingRecord parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 6) {
+            return null;
+        }
+        int ticketCount;
+        try {
+            ticketCount = Integer.parseInt(parts[2].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        StringBuilder seats = new StringBuilder();
+        for (int i = 4; i < parts.length - 1; i++) {
+            if (seats.length() > 0) {
+                seats.append(',');
+            }
+            seats.append(parts[i].trim());
+        }
+        return new BookingRecord(parts[0].trim(), parts[1].trim(), ticketCount, parts[3].trim(), seats.toString(), parts[parts.length - 1].trim());
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public int getTicketCount() {
+        return ticketCount;
+    }
+
+    // True for a tombstone that cancels an earlier booking with the same user and booking ID
+    public boolean isCancellation() {
+        return ticketCount < 0;
+    }
+
+    // Tombstone record cancelling this booking
+    public BookingRecord toCancellation(String timestamp) {
+        return new BookingRecord(username, eventName, -Math.abs(ticketCount), timestamp, seats, bookingId);
+    }
+
+    // Identifies a booking and its tombstone; booking IDs are only unique per user
+    public String getKey() {
+        return username + "\u0000" + bookingId;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSeats() {
+        return seats;
+    }
+
+    public List<String> getSeatList() {
+        return seats.isEmpty() ? new ArrayList<>() : Arrays.asList(seats.split(","));
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    // Line as written to the booking log
+    public String toLine() {
+        return username + "," + eventName + "," + ticketCount + "," + timestamp + "," + seats + "," + bookingId;
+    }
+}
@@ -0,0 +1,393 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+// JSON over HTTP for BookingService, on the JDK's built-in server with one virtual thread per
+// request (daemon platform threads before Java 21), so blocking on the journal or a log scan
+// never holds up other clients.
+// Parameters come from the query string or a form-encoded (application/x-www-form-urlencoded) body.
+//   GET    /api/events                              all events
+//   GET    /api/events/upcoming[?after=&limit=]     events that have not started, in start order;
+//                                                   page on by passing the last name as after
+//   GET    /api/events/search?type=&location=&date= upcoming events matching, in date order; also
+//          &from=&to=&minPrice=&maxPrice=           an inclusive date range (yyyy-MM-dd) and price range,
+//          &available=true&limit=                   only events with tickets left, at most limit results
+//   GET    /api/availability?event=                 remaining tickets for one event
+//   GET    /api/bookings?user=[&past=true]          the user's active (or past) bookings
+//   POST   /api/bookings        user, event, seats  book; seats comma separated, e.g. A1,A2
+//   DELETE /api/bookings/{id}?user=                 cancel one of the user's bookings
+//   GET    /api/admin/total-tickets                 per-event ticket totals
+//   GET    /api/admin/sales                         revenue report
+// Malformed parameters answer 400 and business rule failures (including unknown events) 409,
+// both with {"error": message}. There is no authentication, so the server listens on localhost
+// unless -Dbooking.server.host says otherwise.
+// Usage: java BookingServer [port]   (default 8080)
+public class BookingServer {
+
+    private static final int BACKLOG = 4096;
+
+    private final BookingService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // An error answered with the given HTTP status and message
+    private static class HttpError extends Exception {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface Handler {
+        Object handle(HttpExchange exchange, Map<String, String> params) throws Exception;
+    }
+
+    BookingServer(BookingService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        server = HttpServer.create(address, BACKLOG);
+        executor = AsyncRepository.createExecutor("booking-server");
+        server.setExecutor(executor);
+        route("/api/events", "GET", (exchange, params) -> events(service.getEvents()));
+        route("/api/events/upcoming", "GET", this::upcoming);
+        route("/api/events/search", "GET", (exchange, params) -> events(service.search(query(params))));
+        route("/api/availability", "GET", this::availability);
+        route("/api/bookings", null, this::bookings);
+        route("/api/admin/total-tickets", "GET", (exchange, params) -> totalTickets());
+        route("/api/admin/sales", "GET", (exchange, params) -> sales());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Contexts match by path prefix, so each handler checks the path is its own (or a sub-resource it allows)
+    private void route(String path, String method, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                int status = 200;
+                Object body;
+                try {
+                    String subPath = exchange.getRequestURI().getPath().substring(path.length());
+                    if (method != null && !subPath.isEmpty()) {
+                        throw new HttpError(404, "Not found");
+                    }
+                    if (method != null && !method.equals(exchange.getRequestMethod())) {
+                        throw new HttpError(405, "Method not allowed");
+                    }
+                    body = handler.handle(exchange, params(exchange));
+                    if ("POST".equals(exchange.getRequestMethod())) {
+                        status = 201;
+                    }
+                } catch (HttpError e) {
+                    status = e.status;
+                    body = error(e.getMessage());
+                } catch (BookingException e) {
+                    status = 409;
+                    body = error(e.getMessage());
+                } catch (Exception e) {
+                    System.out.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e.getMessage());
+                    status = 500;
+                    body = error("Internal error: " + e.getMessage());
+                }
+                byte[] bytes = json(body).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            }
+        });
+    }
+
+    private Object upcoming(HttpExchange exchange, Map<String, String> params) throws HttpError {
+        Event after = null;
+        String afterName = params.get("after");
+        if (afterName != null && !afterName.trim().isEmpty()) {
+            after = service.getEvent(afterName.trim());
+            if (after == null) {
+                throw new HttpError(404, "No event named '" + afterName.trim() + "'");
+            }
+        }
+        return events(service.upcomingShows(after, limit(params)));
+    }
+
+    private Object availability(HttpExchange exchange, Map<String, String> params) throws HttpError {
+        String eventName = required(params, "event");
+        Event event = service.getEvent(eventName);
+        if (event == null) {
+            throw new HttpError(404, "No event named '" + eventName + "'");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("event", eventName);
+        result.put("available", service.getAvailableTickets(eventName));
+        return result;
+    }
+
+    // GET and POST on /api/bookings, DELETE on /api/bookings/{id}
+    private Object bookings(HttpExchange exchange, Map<String, String> params) throws Exception {
+        String subPath = exchange.getRequestURI().getPath().substring("/api/bookings".length());
+        String method = exchange.getRequestMethod();
+        String username = required(params, "user");
+        if (subPath.isEmpty() && method.equals("GET")) {
+            List<Object> bookings = new ArrayList<>();
+            boolean past = "true".equalsIgnoreCase(params.get("past"));
+            for (BookingRecord record : past ? service.pastBookings(username) : service.activeBookings(username)) {
+                bookings.add(booking(record));
+            }
+            return bookings;
+        }
+        if (subPath.isEmpty() && method.equals("POST")) {
+            String seats = required(params, "seats");
+            String bookingId = service.book(field(params, "user"), field(params, "event"), Arrays.asList(seats.split(",")));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("bookingId", bookingId);
+            return result;
+        }
+        if (subPath.matches("/[^/]+") && method.equals("DELETE")) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cancelled", booking(service.cancel(username, subPath.substring(1))));
+            return result;
+        }
+        throw subPath.isEmpty() || subPath.matches("/[^/]+") ? new HttpError(405, "Method not allowed") : new HttpError(404, "Not found");
+    }
+
+    private Object totalTickets() throws IOException {
+        BookingAggregator.Totals totals = service.totalTickets();
+        List<Object> events = new ArrayList<>();
+        for (BookingAggregator.EventTotals event : totals.getEvents()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("event", event.getEventName());
+            row.put("tickets", event.getTickets());
+            row.put("bookings", event.getActiveBookings());
+            events.add(row);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalTickets", totals.getTotalTickets());
+        result.put("events", events);
+        return result;
+    }
+
+    private Object sales() throws IOException {
+        RevenueEngine.SalesReport report = service.salesReport();
+        List<Object> events = new ArrayList<>();
+        for (RevenueEngine.EventSales sales : report.getEvents()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("event", sales.getEventName());
+            row.put("ticketsSold", sales.getTicketsSold());
+            row.put("revenue", RevenueEngine.formatCents(sales.getRevenueCents()));
+            row.put("sellThroughPercent", Math.round(sales.getSellThroughPercent() * 10) / 10.0);
+            events.add(row);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalRevenue", RevenueEngine.formatCents(report.getTotalRevenueCents()));
+        result.put("totalTickets", report.getTotalTickets());
+        result.put("unmatchedTickets", report.getUnmatchedTickets());
+        result.put("events", events);
+        return result;
+    }
+
+    private Object events(List<Event> events) {
+        List<Object> result = new ArrayList<>();
+        for (Event event : events) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", event.getName());
+            row.put("price", event.getPriceText());
+            row.put("dateTime", event.getDateTimeText());
+            row.put("location", event.getLocation());
+            row.put("capacity", event.getCapacity());
+            row.put("available", event.getAvailableTickets());
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> booking(BookingRecord record) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("bookingId", record.getBookingId());
+        row.put("user", record.getUsername());
+        row.put("event", record.getEventName());
+        row.put("tickets", record.getTicketCount());
+        row.put("seats", record.getSeatList());
+        row.put("time", record.getTimestamp());
+        return row;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("error", message);
+        return result;
+    }
+
+    private static EventSearchIndex.Query query(Map<String, String> params) throws HttpError {
+        EventSearchIndex.Query query = new EventSearchIndex.Query().name(params.get("type")).location(params.get("location"));
+        LocalDate date = date(params.get("date"));
+        LocalDate from = date != null ? date : date(params.get("from"));
+        LocalDate to = date != null ? date : date(params.get("to"));
+        if (from != null) {
+            query.from(from.atStartOfDay());
+        }
+        if (to != null) {
+            query.to(to.plusDays(1).atStartOfDay());
+        }
+        Long minPrice = cents(params.get("minPrice"));
+        if (minPrice != null) {
+            query.minPriceCents(minPrice);
+        }
+        Long maxPrice = cents(params.get("maxPrice"));
+        if (maxPrice != null) {
+            query.maxPriceCents(maxPrice);
+        }
+        query.availableOnly("true".equalsIgnoreCase(params.get("available")));
+        return query.limit(limit(params));
+    }
+
+    // The limit parameter, or no limit
+    private static int limit(Map<String, String> params) throws HttpError {
+        String limit = params.get("limit");
+        if (limit == null || limit.trim().isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(limit.trim()));
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid limit '" + limit + "'");
+        }
+    }
+
+    private static Long cents(String text) throws HttpError {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Event.toCents(text);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new HttpError(400, "Invalid price '" + text + "'");
+        }
+    }
+
+    private static LocalDate date(String text) throws HttpError {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new HttpError(400, "Invalid date '" + text + "', expected yyyy-MM-dd");
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) throws HttpError {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new HttpError(400, "Missing parameter '" + name + "'");
+        }
+        return value.trim();
+    }
+
+    // A required parameter that is written into the booking log as one field
+    private static String field(Map<String, String> params, String name) throws HttpError {
+        String value = required(params, name);
+        if (!BookingService.isValidField(value)) {
+            throw new HttpError(400, "Parameter '" + name + "' cannot contain commas or line breaks");
+        }
+        return value;
+    }
+
+    // Query string parameters, then form body parameters (which win)
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new LinkedHashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+    }
+
+    // Maps, lists, strings, numbers, booleans and null to JSON text
+    static String json(Object value) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringWriter does not throw
+        }
+        return writer.toString();
+    }
+
+    private static void writeJson(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof Map) {
+            writer.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                BookingExporter.writeJsonString(writer, entry.getKey().toString());
+                writer.write(':');
+                writeJson(writer, entry.getValue());
+                first = false;
+            }
+            writer.write('}');
+        } else if (value instanceof Iterable) {
+            writer.write('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writeJson(writer, item);
+                first = false;
+            }
+            writer.write(']');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else {
+            BookingExporter.writeJsonString(writer, value.toString());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String host = System.getProperty("booking.server.host", "127.0.0.1");
+        BookingServer server = new BookingServer(BookingService.getInstance(), new InetSocketAddress(host, port));
+        server.start();
+        System.out.println("Booking API listening on http://" + host + ":" + server.getPort() + "/api/");
+    }
+}
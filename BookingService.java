@@ -0,0 +1,393 @@
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Booking, cancellation, availability, search and admin reports without any UI.
+// The Swing forms and the HTTP API (BookingServer) are both clients of this class; all methods
+// block on file I/O or the journal, so UI callers run them off the EDT. Business rule failures
+// are BookingExceptions whose message can be shown to the user as is.
+public class BookingService {
+
+    private static final Metrics.Operation BOOK = Metrics.operation("book");
+    private static final Metrics.Operation LOG_TICKET_BOOKING = Metrics.operation("logTicketBooking");
+    private static final Metrics.Operation BOOK_BATCH = Metrics.operation("bookBatch");
+    private static final Metrics.Operation CANCEL = Metrics.operation("cancelBooking");
+    private static final Metrics.Operation TOTAL_TICKETS = Metrics.operation("displayTotalTickets");
+    private static final Metrics.Operation MONITOR_SALES = Metrics.operation("monitorSales");
+    private static final BookingService INSTANCE = new BookingService(new File("ticket_bookings.txt"), EventCatalog.getInstance(), TicketAdmission.getInstance(), BookingIdIndex.getInstance());
+
+    static {
+        // Every entry point that books or cancels goes through here, not only MusicEventApp
+        BookingLogCompactor.start();
+    }
+
+    private final File bookingFile;
+    private final EventCatalog catalog;
+    private final TicketAdmission admission;
+    private final UserBookingIndex userIndex;
+    private final BookingIdIndex idIndex;
+    // Striped by booking ID: a cancellation finds the booking and logs its tombstone under the lock,
+    // so two requests to cancel the same booking cannot both release its tickets
+    private final Object[] cancelLocks = new Object[64];
+
+    BookingService(File bookingFile, EventCatalog catalog, TicketAdmission admission, BookingIdIndex idIndex) {
+        this.bookingFile = bookingFile;
+        this.catalog = catalog;
+        this.admission = admission;
+        this.userIndex = new UserBookingIndex(bookingFile);
+        this.idIndex = idIndex;
+        for (int i = 0; i < cancelLocks.length; i++) {
+            cancelLocks[i] = new Object();
+        }
+    }
+
+    public static BookingService getInstance() {
+        return INSTANCE;
+    }
+
+    // All valid events in file order
+    public List<Event> getEvents() {
+        return catalog.getEvents();
+    }
+
+    // Event by exact name, or null
+    public Event getEvent(String eventName) {
+        return catalog.getEvent(eventName);
+    }
+
+    // Every show that has not started, in start order
+    public List<Event> upcomingShows() {
+        return upcomingShows(null, Integer.MAX_VALUE);
+    }
+
+    // A page of shows that have not started, in start order, after the given show (null for the first page)
+    public List<Event> upcomingShows(Event after, int limit) {
+        return catalog.upcomingShows(after, limit);
+    }
+
+    // Upcoming events on the given date whose name and location have words starting with each of the
+    // given words (case-insensitive), in date order; null or blank criteria match everything
+    public List<Event> search(String eventType, String location, LocalDate date) {
+        EventSearchIndex.Query query = new EventSearchIndex.Query().name(eventType).location(location);
+        if (date != null) {
+            query.from(date.atStartOfDay()).to(date.plusDays(1).atStartOfDay());
+        }
+        return search(query);
+    }
+
+    // Upcoming events matching the query, in date order; events that have started are never included
+    public List<Event> search(EventSearchIndex.Query query) {
+        return catalog.search(query.notBefore(LocalDateTime.now()));
+    }
+
+    public int getAvailableTickets(String eventName) {
+        return catalog.getAvailableTickets(eventName);
+    }
+
+    // Claim tickets and seats before anything is written so concurrent bookers cannot oversell,
+    // then wait for the record to be durable; returns the booking ID
+    public String book(String username, String eventName, List<String> seats) throws BookingException, IOException {
+        long start = System.nanoTime();
+        FlightEvents.Booking event = new FlightEvents.Booking();
+        event.begin();
+        try {
+            String bookingId = admitAndLog(username, eventName, seats);
+            Metrics.BOOKINGS_COMMITTED.increment();
+            BOOK.record(start);
+            event.finish("book", username, eventName, bookingId, seats.size(), "committed", null);
+            return bookingId;
+        } catch (BookingException e) {
+            Metrics.BOOKING_REJECTIONS.increment();
+            BOOK.record(start);
+            event.finish("book", username, eventName, null, seats.size(), "rejected", e.getMessage());
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            BOOK.recordError(start);
+            event.finish("book", username, eventName, null, seats.size(), "failed", e.getMessage());
+            throw e;
+        }
+    }
+
+    private String admitAndLog(String username, String eventName, List<String> seats) throws BookingException, IOException {
+        checkField("Username", username);
+        checkField("Event name", eventName);
+        if (seats.isEmpty()) {
+            throw new BookingException("Please enter seat numbers.");
+        }
+        // The loaded catalog is enough here (admin edits reach it through putEvent), so a booking
+        // does not refresh the catalog and tail the log; an unknown name may just be a newer event
+        Event event = catalog.getLoadedEvent(eventName);
+        if (event == null) {
+            event = catalog.getEvent(eventName);
+        }
+        if (event == null) {
+            throw new BookingException("Event '" + eventName + "' not found.");
+        }
+        if (event.hasStarted()) {
+            throw new BookingException("Cannot book past events.");
+        }
+        // Log the seats as they were validated, so padding such as a trailing line break cannot reach the record
+        List<String> trimmed = new ArrayList<>(seats.size());
+        for (String seat : seats) {
+            trimmed.add(seat.trim());
+        }
+        seats = trimmed;
+        String bookingId = BookingIdGenerator.getInstance().nextId();
+        TicketAdmission.Admission granted = admission.admit(eventName, seats);
+        try {
+            logTicketBooking(username, eventName, seats.size(), String.join(",", seats), bookingId).join();
+        } catch (CompletionException e) {
+            granted.rollback();
+            throw new IOException("Error logging booking: " + e.getCause().getMessage(), e.getCause());
+        }
+        return bookingId;
+    }
+
+    // True if the value can be written as one field of a booking record
+    public static boolean isValidField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '\r' || c == '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkField(String label, String value) throws BookingException {
+        if (!isValidField(value)) {
+            throw new BookingException(label + " cannot contain commas or line breaks.");
+        }
+    }
+
+    // Book every row of a group booking or none of them. All rows are admitted first (capacity and
+    // seats, including seats taken by earlier rows of the same batch); if any is rejected, everything
+    // admitted is handed back and each rejected row is reported. Otherwise all records go to the
+    // journal as one write and one force(). Rows are checked like single bookings.
+    public BookingBatch.Result bookBatch(BookingBatch batch) throws IOException {
+        long start = System.nanoTime();
+        FlightEvents.Booking event = new FlightEvents.Booking();
+        event.begin();
+        List<BookingBatch.Rejection> rejections = new ArrayList<>(batch.getRejections());
+        List<TicketAdmission.Admission> granted = new ArrayList<>(batch.getRows().size());
+        List<BookingRecord> records = new ArrayList<>(batch.getRows().size());
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        int tickets = 0;
+        catalog.refresh();
+        for (BookingBatch.Row row : batch.getRows()) {
+            try {
+                records.add(admitRow(row, timestamp, granted));
+                tickets += row.getSeats().size();
+            } catch (BookingException e) {
+                rejections.add(new BookingBatch.Rejection(row.getLine(), e.getMessage()));
+            } catch (IOException e) {
+                rollback(granted);
+                BOOK_BATCH.recordError(start);
+                event.finish("batch", null, null, null, tickets, "failed", e.getMessage());
+                throw e;
+            }
+        }
+        if (!rejections.isEmpty()) {
+            rollback(granted);
+            rejections.sort(Comparator.comparingInt(BookingBatch.Rejection::getLine));
+            Metrics.BOOKING_REJECTIONS.add(rejections.size());
+            BOOK_BATCH.record(start);
+            event.finish("batch", null, null, null, tickets, "rejected", rejections.size() + " of " + batch.size() + " rows rejected");
+            return new BookingBatch.Result(new ArrayList<>(), rejections);
+        }
+        List<String> bookingIds = new ArrayList<>(records.size());
+        for (BookingRecord record : records) {
+            bookingIds.add(record.getBookingId());
+        }
+        if (!records.isEmpty()) {
+            try {
+                logTicketBookings(records).join();
+            } catch (CompletionException e) {
+                rollback(granted);
+                BOOK_BATCH.recordError(start);
+                event.finish("batch", null, null, null, tickets, "failed", e.getCause().getMessage());
+                throw new IOException("Error logging group booking: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        Metrics.BOOKINGS_COMMITTED.add(records.size());
+        BOOK_BATCH.record(start);
+        event.finish("batch", null, null, null, tickets, "committed", records.size() + " bookings");
+        return new BookingBatch.Result(bookingIds, rejections);
+    }
+
+    // Admit one row of a batch, adding its admission to granted; returns the record to log
+    private BookingRecord admitRow(BookingBatch.Row row, String timestamp, List<TicketAdmission.Admission> granted) throws BookingException, IOException {
+        checkField("Username", row.getUsername());
+        checkField("Event name", row.getEventName());
+        Event event = catalog.getLoadedEvent(row.getEventName());
+        if (event == null) {
+            throw new BookingException("Event '" + row.getEventName() + "' not found.");
+        }
+        if (event.hasStarted()) {
+            throw new BookingException("Cannot book past events.");
+        }
+        granted.add(admission.admit(row.getEventName(), row.getSeats()));
+        return new BookingRecord(row.getUsername(), row.getEventName(), row.getSeats().size(), timestamp,
+                String.join(",", row.getSeats()), BookingIdGenerator.getInstance().nextId());
+    }
+
+    private static void rollback(List<TicketAdmission.Admission> granted) {
+        for (TicketAdmission.Admission admitted : granted) {
+            admitted.rollback();
+        }
+    }
+
+    // Cancel one of the user's bookings by appending a tombstone; returns the cancelled booking
+    public BookingRecord cancel(String username, String bookingId) throws BookingException, IOException {
+        long start = System.nanoTime();
+        FlightEvents.Booking event = new FlightEvents.Booking();
+        event.begin();
+        try {
+            BookingRecord cancelled = cancelActive(username, bookingId);
+            Metrics.CANCELLATIONS.increment();
+            CANCEL.record(start);
+            event.finish("cancel", username, cancelled.getEventName(), bookingId, cancelled.getTicketCount(), "committed", null);
+            return cancelled;
+        } catch (BookingException e) {
+            CANCEL.record(start);
+            event.finish("cancel", username, null, bookingId, 0, "rejected", e.getMessage());
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            CANCEL.recordError(start);
+            event.finish("cancel", username, null, bookingId, 0, "failed", e.getMessage());
+            throw e;
+        }
+    }
+
+    private BookingRecord cancelActive(String username, String bookingId) throws BookingException, IOException {
+        synchronized (cancelLocks[Math.floorMod(bookingId.hashCode(), cancelLocks.length)]) {
+            BookingRecord cancelled = bookingFile.exists() ? idIndex.findActive(username, bookingId) : null;
+            if (cancelled == null) {
+                throw new BookingException("Booking ID '" + bookingId + "' not found or does not belong to you.");
+            }
+            Event event = catalog.getEvent(cancelled.getEventName());
+            if (event != null && event.hasStarted()) {
+                throw new BookingException("Cannot cancel bookings for past events.");
+            }
+            // The compactor drops the booking and its tombstone later
+            try {
+                logCancellation(cancelled).join();
+            } catch (CompletionException e) {
+                throw new IOException("Error updating bookings: " + e.getCause().getMessage(), e.getCause());
+            }
+            admission.releaseBooking(cancelled.getEventName(), cancelled.getSeatList(), cancelled.getTicketCount());
+            return cancelled;
+        }
+    }
+
+    // Queue a booking record; the future completes once the record is durable
+    private static CompletableFuture<Void> logTicketBooking(String username, String eventName, int ticketCount, String seats, String bookingId) {
+        long start = System.nanoTime();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        String record = username + "," + eventName + "," + ticketCount + "," + timestamp + "," + seats + "," + bookingId;
+        return BookingJournal.getInstance().append(record).whenComplete((v, e) -> {
+            if (e != null) {
+                LOG_TICKET_BOOKING.recordError(start);
+                System.out.println("Error logging ticket booking: " + e.getMessage());
+            } else {
+                LOG_TICKET_BOOKING.record(start);
+            }
+        });
+    }
+
+    // Queue a cancellation tombstone for an earlier booking
+    private static CompletableFuture<Void> logCancellation(BookingRecord booking) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return BookingJournal.getInstance().append(booking.toCancellation(timestamp).toLine()).whenComplete((v, e) -> {
+            if (e != null) {
+                System.out.println("Error logging cancellation: " + e.getMessage());
+            }
+        });
+    }
+
+    // Queue a group booking as one journal write; the future completes once every record is durable
+    private static CompletableFuture<Void> logTicketBookings(List<BookingRecord> bookings) {
+        long start = System.nanoTime();
+        List<String> records = new ArrayList<>(bookings.size());
+        for (BookingRecord booking : bookings) {
+            records.add(booking.toLine());
+        }
+        return BookingJournal.getInstance().appendBatch(records).whenComplete((v, e) -> {
+            if (e != null) {
+                LOG_TICKET_BOOKING.recordError(start);
+                System.out.println("Error logging group booking: " + e.getMessage());
+            } else {
+                LOG_TICKET_BOOKING.record(start);
+            }
+        });
+    }
+
+    // Every booking logged under the ID with its status, in log order (support lookups)
+    public List<BookingIdIndex.Match> lookupBooking(String bookingId) throws IOException {
+        if (!bookingFile.exists()) {
+            return new ArrayList<>();
+        }
+        return idIndex.lookup(bookingId);
+    }
+
+    // The user's uncancelled bookings in log order, read through the per-user index. The catalog is
+    // refreshed once here, so getEventDateTime can join event details to the records from memory.
+    public List<BookingRecord> activeBookings(String username) throws IOException {
+        catalog.refresh();
+        if (!bookingFile.exists()) {
+            return new ArrayList<>();
+        }
+        return userIndex.activeBookings(username);
+    }
+
+    // The user's uncancelled bookings for events that have already taken place
+    public List<BookingRecord> pastBookings(String username) throws IOException {
+        List<BookingRecord> past = new ArrayList<>();
+        for (BookingRecord record : activeBookings(username)) {
+            Event event = catalog.getLoadedEvent(record.getEventName());
+            if (event != null && event.hasStarted()) {
+                past.add(record);
+            }
+        }
+        return past;
+    }
+
+    // Event date/time as shown in listings, or "Not set" for events no longer in the catalog;
+    // uses the catalog as of the last refresh (see activeBookings)
+    public String getEventDateTime(String eventName) {
+        Event event = catalog.getLoadedEvent(eventName);
+        return event != null ? event.getDateTimeText() : "Not set";
+    }
+
+    // Per-event ticket totals over the whole log
+    public BookingAggregator.Totals totalTickets() throws IOException {
+        long start = System.nanoTime();
+        try {
+            BookingAggregator.Totals totals = BookingAggregator.aggregate(bookingFile);
+            TOTAL_TICKETS.record(start);
+            return totals;
+        } catch (IOException e) {
+            TOTAL_TICKETS.recordError(start);
+            throw e;
+        }
+    }
+
+    public RevenueEngine.SalesReport salesReport() throws IOException {
+        long start = System.nanoTime();
+        try {
+            RevenueEngine.SalesReport report = RevenueEngine.aggregate(catalog.getEvents(), bookingFile);
+            MONITOR_SALES.record(start);
+            return report;
+        } catch (IOException e) {
+            MONITOR_SALES.recordError(start);
+            throw e;
+        }
+    }
+}
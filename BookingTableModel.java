@@ -0,0 +1,126 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Table model over a BookingIndex that pages records in as the table scrolls.
+// Rows are read from the log a page at a time on the AsyncRepository executor; until a page
+// arrives its cells render empty. A page that fails to load stays empty, without being asked for
+// again, until the view is replaced. Only a bounded number of pages is kept, least recently used
+// first out. The row order (filter and sort) is an int[] view into the index.
+public class BookingTableModel extends AbstractTableModel {
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES = 32;
+
+    private final BookingIndex index;
+    private final BookingIndex.Column[] columns;
+    private final Map<Integer, BookingRecord[]> pages = new LinkedHashMap<Integer, BookingRecord[]>(MAX_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BookingRecord[]> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private final Set<Integer> failed = new HashSet<>();
+    private int[] view;
+    private int generation;
+
+    public BookingTableModel(BookingIndex index, BookingIndex.Column... columns) {
+        this.index = index;
+        this.columns = columns;
+        this.view = index.select(BookingIndex.Column.EVENT, null);
+    }
+
+    public BookingIndex getIndex() {
+        return index;
+    }
+
+    public BookingIndex.Column getColumn(int column) {
+        return columns[column];
+    }
+
+    // Replace the row order after filtering or sorting; cached pages no longer line up
+    public void setView(int[] rows) {
+        view = rows;
+        generation++;
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return view.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column].getHeader();
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        BookingRecord[] records = pages.get(page);
+        if (records == null) {
+            requestPage(page);
+            return null;
+        }
+        BookingRecord record = records[rowIndex - page * PAGE_SIZE];
+        if (record == null) {
+            return null;
+        }
+        switch (columns[columnIndex]) {
+            case USER:
+                return record.getUsername();
+            case EVENT:
+                return record.getEventName();
+            case TICKETS:
+                return record.getTicketCount();
+            case SEATS:
+                return record.getSeats();
+            case BOOKING_ID:
+                return record.getBookingId();
+            default:
+                return record.getTimestamp();
+        }
+    }
+
+    private void requestPage(int page) {
+        if (failed.contains(page) || !loading.add(page)) {
+            return;
+        }
+        int[] rows = view;
+        int requestedGeneration = generation;
+        int start = page * PAGE_SIZE;
+        int end = Math.min(rows.length, start + PAGE_SIZE);
+        AsyncRepository.supply(() -> {
+            BookingRecord[] records = new BookingRecord[end - start];
+            for (int i = start; i < end; i++) {
+                records[i - start] = index.read(rows[i]);
+            }
+            return records;
+        }).whenComplete((records, error) -> SwingUtilities.invokeLater(() -> {
+            if (requestedGeneration != generation) {
+                return;
+            }
+            loading.remove(page);
+            if (error != null) {
+                System.out.println("Error reading ticket bookings: " + error.getCause().getMessage());
+                failed.add(page);
+                return;
+            }
+            pages.put(page, records);
+            fireTableRowsUpdated(start, end - 1);
+        }));
+    }
+}
@@ -0,0 +1,103 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+
+// Booking listing for AdminPanel: a paged JTable with a filter bar.
+// Clicking a sortable header sorts by that column (again to reverse); filtering matches the
+// typed text against event names or usernames. Both are computed off the EDT on the index.
+public class BookingTablePanel extends JPanel {
+
+    private final UiTaskRunner tasks;
+    private final BookingTableModel model;
+    private final JLabel statusLabel = new JLabel();
+    private BookingIndex.Column sortColumn;
+    private boolean ascending = true;
+
+    // A non-null summary is shown above the filter bar
+    public BookingTablePanel(UiTaskRunner tasks, BookingTableModel model, String summary) {
+        super(new BorderLayout());
+        this.tasks = tasks;
+        this.model = model;
+
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Filter bar
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JComboBox<String> filterBy = new JComboBox<>(new String[]{"Event", "User"});
+        JTextField filterField = new JTextField(20);
+        JButton filterBtn = new JButton("Filter");
+        filterPanel.add(new JLabel("Filter by:"));
+        filterPanel.add(filterBy);
+        filterPanel.add(filterField);
+        filterPanel.add(filterBtn);
+        filterPanel.add(statusLabel);
+        if (summary != null) {
+            JTextArea summaryArea = new JTextArea(summary, 6, 50);
+            summaryArea.setEditable(false);
+            JPanel top = new JPanel(new BorderLayout());
+            top.add(new JScrollPane(summaryArea), BorderLayout.CENTER);
+            top.add(filterPanel, BorderLayout.SOUTH);
+            add(top, BorderLayout.NORTH);
+        } else {
+            add(filterPanel, BorderLayout.NORTH);
+        }
+
+        Runnable applyFilter = () -> updateView("User".equals(filterBy.getSelectedItem()) ? BookingIndex.Column.USER : BookingIndex.Column.EVENT, filterField.getText());
+        filterBtn.addActionListener(e -> applyFilter.run());
+        filterField.addActionListener(e -> applyFilter.run());
+
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (column < 0 || !model.getColumn(column).isSortable()) {
+                    return;
+                }
+                BookingIndex.Column clicked = model.getColumn(column);
+                ascending = clicked != sortColumn || !ascending;
+                sortColumn = clicked;
+                applyFilter.run();
+            }
+        });
+
+        updateStatus();
+    }
+
+    // Close the index once the panel is no longer shown
+    public void close() {
+        try {
+            model.getIndex().close();
+        } catch (IOException e) {
+            System.out.println("Error closing booking index: " + e.getMessage());
+        }
+    }
+
+    private void updateView(BookingIndex.Column filterColumn, String filterText) {
+        BookingIndex index = model.getIndex();
+        BookingIndex.Column column = sortColumn;
+        boolean order = ascending;
+        tasks.submit("bookingView", () -> {
+            int[] rows = index.select(filterColumn, filterText);
+            if (column != null) {
+                index.sort(rows, column, order);
+            }
+            return rows;
+        }, rows -> {
+            model.setView(rows);
+            updateStatus();
+        });
+    }
+
+    private void updateStatus() {
+        String text = model.getRowCount() + " of " + model.getIndex().size() + " bookings";
+        if (sortColumn != null) {
+            text += ", sorted by " + sortColumn.getHeader() + (ascending ? " (ascending)" : " (descending)");
+        }
+        statusLabel.setText(text);
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Username -> password lookup for a credentials file (username,secret per line).
+// The file is indexed in memory once and re-read only when its mtime or size changes.
+// New secrets are salted PBKDF2 hashes; legacy plaintext lines still work and are upgraded
+// on the next successful login. Changes are appended and the last line for a user wins;
+// superseded lines (including upgraded plaintext) are dropped by a debounced rewrite.
+// All hashing runs on a small bounded worker pool and results come back as futures, so
+// callers on the Swing thread never block on it.
+public class CredentialStore {
+
+    private static final String HASH_PREFIX = "pbkdf2$";
+    private static final int ITERATIONS = 100_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final long COMPACT_DELAY_SECONDS = 30;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ExecutorService HASH_POOL = createHashPool();
+    private static final ScheduledExecutorService COMPACTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "credential-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Metrics.Operation LOGIN = Metrics.operation("login");
+    private static final Metrics.Operation LOAD_CREDENTIALS = Metrics.operation("loadCredentials");
+    private static final CredentialStore MEMBERS = new CredentialStore(new File("member_credentials.txt"));
+    private static final CredentialStore ADMINS = new CredentialStore(new File("admin_credentials.txt"));
+
+    private final File file;
+    private final Set<String> pendingSignUps = new HashSet<>();
+    private Map<String, String> secrets = new HashMap<>();
+    private long modified = -1;
+    private long size = -1;
+    private int obsoleteLines;
+    private boolean compactScheduled;
+
+    CredentialStore(File file) {
+        this.file = file;
+    }
+
+    public static CredentialStore members() {
+        return MEMBERS;
+    }
+
+    public static CredentialStore admins() {
+        return ADMINS;
+    }
+
+    public boolean fileExists() {
+        return file.exists();
+    }
+
+    public synchronized boolean isTaken(String username) {
+        refresh();
+        return secrets.containsKey(username) || pendingSignUps.contains(username);
+    }
+
+    // Completes with true if the password matches
+    public CompletableFuture<Boolean> authenticate(String username, String password) {
+        long start = System.nanoTime();
+        return submit(() -> {
+            String stored;
+            synchronized (this) {
+                refresh();
+                stored = secrets.get(username);
+            }
+            if (stored == null) {
+                return false;
+            }
+            if (stored.startsWith(HASH_PREFIX)) {
+                return verify(password, stored);
+            }
+            boolean valid = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+            if (valid) {
+                appendSecret(username, hash(password), stored);
+            }
+            return valid;
+        }).whenComplete((valid, e) -> {
+            if (e != null) {
+                LOGIN.recordError(start);
+            } else {
+                LOGIN.record(start);
+            }
+        });
+    }
+
+    // Atomic check-and-insert: completes with false if the username is already taken
+    public CompletableFuture<Boolean> register(String username, String password) {
+        return submit(() -> {
+            synchronized (this) {
+                if (isTaken(username)) {
+                    return false;
+                }
+                pendingSignUps.add(username);
+            }
+            try {
+                appendSecret(username, hash(password), null);
+                return true;
+            } finally {
+                synchronized (this) {
+                    pendingSignUps.remove(username);
+                }
+            }
+        });
+    }
+
+    // Completes with false if the user does not exist
+    public CompletableFuture<Boolean> changePassword(String username, String newPassword) {
+        return submit(() -> {
+            synchronized (this) {
+                refresh();
+                if (!secrets.containsKey(username)) {
+                    return false;
+                }
+            }
+            appendSecret(username, hash(newPassword), null);
+            return true;
+        });
+    }
+
+    // Run on the hash pool; a full pool fails the future instead of throwing at the caller.
+    // Failures always arrive wrapped in a CompletionException.
+    private static <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, HASH_POOL);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new CompletionException(e));
+            return failed;
+        }
+    }
+
+    // Append a new secret for the user; with expected != null only if the stored secret is still that value
+    private synchronized void appendSecret(String username, String secret, String expected) {
+        refresh();
+        if (expected != null && !expected.equals(secrets.get(username))) {
+            return;
+        }
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write(username + "," + secret + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (secrets.put(username, secret) != null) {
+            obsoleteLines++;
+            scheduleCompaction();
+        }
+        // Our own append should not trigger a full reload
+        modified = file.lastModified();
+        size = file.length();
+    }
+
+    private void scheduleCompaction() {
+        if (!compactScheduled) {
+            compactScheduled = true;
+            COMPACTOR.schedule(this::compact, COMPACT_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // Rewrite the file with only the current secret per user, via temp file and atomic rename
+    synchronized void compact() {
+        compactScheduled = false;
+        refresh();
+        if (obsoleteLines == 0) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileWriter writer = new FileWriter(temp)) {
+            for (Map.Entry<String, String> entry : secrets.entrySet()) {
+                writer.write(entry.getKey() + "," + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            System.out.println("Error compacting credentials: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error compacting credentials: " + e.getMessage());
+            return;
+        }
+        obsoleteLines = 0;
+        modified = file.lastModified();
+        size = file.length();
+    }
+
+    private void refresh() {
+        long currentModified = file.lastModified();
+        long currentSize = file.length();
+        if (currentModified == modified && currentSize == size) {
+            return;
+        }
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        Map<String, String> loaded = new LinkedHashMap<>();
+        int obsolete = 0;
+        long rows = 0;
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows++;
+                    Metrics.ROWS_SCANNED.increment();
+                    String[] parts = line.split(",");
+                    if (parts.length >= 2 && loaded.put(parts[0], parts[1]) != null) {
+                        obsolete++;
+                    }
+                }
+            } catch (IOException e) {
+                LOAD_CREDENTIALS.recordError(start);
+                System.out.println("Error reading credentials: " + e.getMessage());
+                return;
+            }
+            Metrics.BYTES_READ.add(currentSize);
+        }
+        LOAD_CREDENTIALS.record(start);
+        scan.finish(file, file.exists() ? currentSize : 0, rows);
+        secrets = loaded;
+        obsoleteLines = obsolete;
+        modified = currentModified;
+        size = currentSize;
+        if (obsolete > 0) {
+            scheduleCompaction();
+        }
+    }
+
+    static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return HASH_PREFIX + ITERATIONS + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(pbkdf2(password, salt, ITERATIONS));
+    }
+
+    static boolean verify(String password, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        }
+    }
+
+    // Bounded pool: a burst of logins queues up to a limit and is then rejected instead of piling up
+    private static ExecutorService createHashPool() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256), r -> {
+            Thread thread = new Thread(r, "credential-hasher");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+
+// Writes a synthetic data set in the application's file formats for load tests and capacity planning:
+// events.txt, ticket_bookings.txt, member_credentials.txt and inquiries.txt.
+// Event popularity follows a Zipf distribution (event 0 is the most popular), so the top events
+// sell out while the long tail stays mostly empty. Seats are handed out without overlap and never
+// beyond capacity, and about one booking in twenty is later cancelled with a tombstone, so the
+// data satisfies the same invariants LoadHarness checks. Members get legacy plaintext passwords
+// (memberN / passwordN); hashing them all here would take hours, and logins upgrade them anyway.
+// Usage: java DatasetGenerator <dir> [events] [members] [bookings] [inquiries] [zipfExponent] [seed]
+//        (defaults: 1000 events, 50000 members, 500000 bookings, 5000 inquiries, exponent 1.1, seed 42)
+public class DatasetGenerator {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int SEATS_PER_ROW = 100;
+    private static final int MAX_CAPACITY = 26 * SEATS_PER_ROW; // seat labels A0..Z99, see SeatInventory
+    private static final String[] KINDS = {"Concert", "Festival", "Jazz Night", "Opera", "Comedy Show", "Orchestra", "DJ Set", "Musical"};
+    private static final String[] VENUES = {"Stadium", "Arena", "Concert Hall", "Opera House", "Park", "Club", "Theater", "Amphitheater"};
+    private static final String[] QUESTIONS = {"Is there parking at the venue?", "Can I change my seats?", "Are doors open an hour early?",
+            "Is the event accessible by wheelchair?", "Can I get a refund?", "Are children allowed?"};
+
+    // Zipf(n, s) over ranks 0..n-1 by inverse CDF; shared with LoadHarness
+    static class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+        }
+
+        // Rank for a uniform value in [0, 1)
+        int sample(double uniform) {
+            int index = Arrays.binarySearch(cdf, uniform);
+            return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java DatasetGenerator <dir> [events] [members] [bookings] [inquiries] [zipfExponent] [seed]");
+            System.exit(1);
+        }
+        File dir = new File(args[0]);
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int memberCount = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+        long bookingCount = args.length > 3 ? Long.parseLong(args[3]) : 500_000;
+        int inquiryCount = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+        double exponent = args.length > 5 ? Double.parseDouble(args[5]) : 1.1;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.out.println("Cannot create " + dir);
+            System.exit(1);
+        }
+
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        int[] capacity = writeEvents(new File(dir, "events.txt"), eventCount, now, random);
+        writeMembers(new File(dir, "member_credentials.txt"), memberCount);
+        long written = writeBookings(new File(dir, "ticket_bookings.txt"), capacity, memberCount, bookingCount, new Zipf(eventCount, exponent), now, random);
+        writeInquiries(new File(dir, "inquiries.txt"), inquiryCount, memberCount, random);
+        System.out.println("Wrote " + eventCount + " events, " + memberCount + " members, " + written + " bookings and "
+                + inquiryCount + " inquiries to " + dir);
+        if (written < bookingCount) {
+            System.out.println("Every event sold out after " + written + " bookings; add events for more.");
+        }
+    }
+
+    // One in ten events is already over; returns the capacity of each event
+    private static int[] writeEvents(File file, int eventCount, LocalDateTime now, Random random) throws IOException {
+        int[] capacity = new int[eventCount];
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < eventCount; i++) {
+                capacity[i] = 100 + random.nextInt(MAX_CAPACITY - 99);
+                LocalDateTime date = random.nextInt(10) == 0
+                        ? now.minusDays(1 + random.nextInt(180)).withHour(20).withMinute(0)
+                        : now.plusDays(1 + random.nextInt(365)).withHour(18 + random.nextInt(4)).withMinute(random.nextBoolean() ? 0 : 30);
+                String price = (15 + random.nextInt(186)) + (random.nextBoolean() ? ".00" : ".50");
+                writer.write(KINDS[i % KINDS.length] + " " + i + "," + price + "," + date.format(Event.DATE_TIME_FORMAT) + ","
+                        + VENUES[random.nextInt(VENUES.length)] + " " + (i % 50) + "," + capacity[i] + "\n");
+            }
+        }
+        return capacity;
+    }
+
+    private static void writeMembers(File file, int memberCount) throws IOException {
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < memberCount; i++) {
+                writer.write("member" + i + ",password" + i + "\n");
+            }
+        }
+    }
+
+    // A sold-out pick falls through to the next event that still has seats; returns the bookings written
+    private static long writeBookings(File file, int[] capacity, int memberCount, long bookingCount, Zipf zipf,
+                                      LocalDateTime now, Random random) throws IOException {
+        int eventCount = capacity.length;
+        int[] nextSeat = new int[eventCount];
+        int soldOut = 0;
+        long written = 0;
+        try (Writer writer = open(file)) {
+            String previous = null;
+            StringBuilder line = new StringBuilder(128);
+            while (written < bookingCount && soldOut < eventCount) {
+                int event = zipf.sample(random.nextDouble());
+                while (nextSeat[event] >= capacity[event]) {
+                    event = (event + 1) % eventCount;
+                }
+                int tickets = Math.min(capacity[event] - nextSeat[event], 1 + Math.min(random.nextInt(6), 3));
+                line.setLength(0);
+                line.append("member").append(random.nextInt(memberCount)).append(',').append(KINDS[event % KINDS.length]).append(' ').append(event)
+                        .append(',').append(tickets).append(',').append(now.minusMinutes(random.nextInt(90 * 24 * 60)).format(TIMESTAMP));
+                for (int t = 0; t < tickets; t++) {
+                    int position = nextSeat[event]++;
+                    line.append(',').append((char) ('A' + position / SEATS_PER_ROW)).append(position % SEATS_PER_ROW);
+                }
+                line.append(",B").append(written);
+                if (nextSeat[event] == capacity[event]) {
+                    soldOut++;
+                }
+                // The cancelled booking's seats are not handed out again; the log stays valid either way
+                if (previous != null && random.nextInt(20) == 0) {
+                    writer.write(BookingRecord.parse(previous).toCancellation(now.format(TIMESTAMP)).toLine());
+                    writer.write('\n');
+                    previous = null;
+                } else {
+                    previous = line.toString();
+                }
+                writer.write(line.toString());
+                writer.write('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static void writeInquiries(File file, int inquiryCount, int memberCount, Random random) throws IOException {
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < inquiryCount; i++) {
+                writer.write("User: member" + random.nextInt(memberCount) + ", Inquiry: " + QUESTIONS[random.nextInt(QUESTIONS.length)] + "\n");
+            }
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+}
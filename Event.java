@@ -0,0 +1,107 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Event {
+
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final String name;
+    private final String priceText;
+    private final double price;
+    private final long priceCents;
+    private final String dateTimeText;
+    private final LocalDateTime dateTime;
+    private final String location;
+    private final int capacity;
+    private final AtomicInteger sold;
+    private volatile boolean started;
+
+    public Event(String name, String priceText, String dateTimeText, String location, int capacity, AtomicInteger sold) {
+        this.name = name;
+        this.priceText = priceText;
+        this.price = Double.parseDouble(priceText);
+        this.priceCents = toCents(priceText);
+        this.dateTimeText = dateTimeText;
+        this.dateTime = LocalDateTime.parse(dateTimeText, DATE_TIME_FORMAT);
+        this.location = location;
+        this.capacity = capacity;
+        this.sold = sold;
+        this.started = !dateTime.isAfter(LocalDateTime.now());
+    }
+
+    // Parse one line of events.txt (name,price,dateTime,location,totalTickets); returns null if malformed
+    public static Event parse(String line, AtomicInteger sold) {
+        String[] parts = line.split(",");
+        if (parts.length < 5) {
+            return null;
+        }
+        try {
+            return new Event(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(), Integer.parseInt(parts[4].trim()), sold);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // A price such as "49.99" in cents, rounded half up; throws NumberFormatException or ArithmeticException
+    public static long toCents(String priceText) {
+        return new BigDecimal(priceText.trim()).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPriceText() {
+        return priceText;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    // Exact price in cents for revenue totals
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public String getDateTimeText() {
+        return dateTimeText;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    // Whether the show has begun; set at construction and flipped at the start time by UpcomingShowIndex
+    public boolean hasStarted() {
+        return started;
+    }
+
+    void markStarted() {
+        started = true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSold() {
+        return sold.get();
+    }
+
+    public int getAvailableTickets() {
+        return Math.max(0, capacity - sold.get());
+    }
+
+    // Same summary line the booking form and event listings have always shown
+    public String toDisplayString() {
+        return "Event: " + name + ", Price: $" + priceText + ", Date/Time: " + dateTimeText + ", Location: " + location + ", Available Tickets: " + getAvailableTickets();
+    }
+}
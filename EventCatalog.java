@@ -0,0 +1,213 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared, parsed view of events.txt with live sold counts from the SoldTicketIndex.
+// events.txt is only re-read when its modification time or size changes; edits made through
+// putEvent and removeEvent are applied in place, including to the EventSearchIndex and the
+// UpcomingShowIndex. Capacity listeners (TicketAdmission) hear about new and changed capacities.
+public class EventCatalog {
+
+    private static final int DEFAULT_CAPACITY = 100;
+    private static final Metrics.Operation LOAD_EVENTS = Metrics.operation("loadEvents");
+    private static final EventCatalog INSTANCE = new EventCatalog(new File("events.txt"), SoldTicketIndex.getInstance());
+
+    private final File eventsFile;
+    private final SoldTicketIndex soldIndex;
+    private volatile Map<String, Event> events = Collections.emptyMap();
+    private volatile long version;
+    private EventSearchIndex searchIndex; // built on the first search
+    private volatile UpcomingShowIndex upcomingIndex = new UpcomingShowIndex(Collections.emptyList());
+    private long eventsModified = -1;
+    private long eventsSize = -1;
+    private final List<CapacityListener> capacityListeners = new CopyOnWriteArrayList<>();
+
+    // Told when an event is added or its capacity changes, by putEvent or a reload of events.txt
+    public interface CapacityListener {
+        void capacityChanged(String eventName, int capacity);
+    }
+
+    EventCatalog(File eventsFile, SoldTicketIndex soldIndex) {
+        this.eventsFile = eventsFile;
+        this.soldIndex = soldIndex;
+    }
+
+    public static EventCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    // All valid events in file order
+    public List<Event> getEvents() {
+        refresh();
+        return new ArrayList<>(events.values());
+    }
+
+    // Event by exact name, or null if it is not in the catalog
+    public Event getEvent(String name) {
+        refresh();
+        return events.get(name);
+    }
+
+    // Event by exact name as of the last refresh, without checking events.txt; for joining many
+    // records to the catalog after one refresh
+    public Event getLoadedEvent(String name) {
+        return events.get(name);
+    }
+
+    public void addCapacityListener(CapacityListener listener) {
+        capacityListeners.add(listener);
+    }
+
+    // Changes whenever an event is added, removed or edited, or events.txt is reloaded
+    public long getVersion() {
+        return version;
+    }
+
+    // Remaining tickets; events missing from the catalog fall back to the default capacity
+    public int getAvailableTickets(String eventName) {
+        Event event = getEvent(eventName);
+        if (event != null) {
+            return event.getAvailableTickets();
+        }
+        return Math.max(0, DEFAULT_CAPACITY - soldIndex.getSold(eventName));
+    }
+
+    // Tickets for sale; events missing from the catalog fall back to the default capacity
+    public int getCapacity(String eventName) {
+        Event event = getEvent(eventName);
+        return event != null ? event.getCapacity() : DEFAULT_CAPACITY;
+    }
+
+    // Events matching the query, in date order
+    public List<Event> search(EventSearchIndex.Query query) {
+        refresh();
+        return searchIndex().search(query);
+    }
+
+    // Up to limit shows that have not started, in start order, after the given show (null for the first page)
+    public List<Event> upcomingShows(Event after, int limit) {
+        refresh();
+        return upcomingIndex.upcoming(after, limit);
+    }
+
+    // Reload events.txt if it changed and catch the sold counts up with new bookings
+    public synchronized void refresh() {
+        long modified = eventsFile.lastModified();
+        long size = eventsFile.length();
+        if (modified != eventsModified || size != eventsSize) {
+            eventsModified = modified;
+            eventsSize = size;
+            Map<String, Event> previous = events;
+            events = Collections.unmodifiableMap(readEvents());
+            version++;
+            for (Event event : events.values()) {
+                capacityChanged(previous.get(event.getName()), event);
+            }
+            searchIndex = null;
+            upcomingIndex.close();
+            upcomingIndex = new UpcomingShowIndex(events.values());
+        }
+        soldIndex.refresh();
+    }
+
+    // Take a line the caller has just added to or replaced in events.txt, without re-reading the file.
+    // The catalog must have been refreshed before the file was written, or other changes are missed.
+    public synchronized void putEvent(String line) {
+        Event event = Event.parse(line, soldCounter(line.split(",", 2)[0].trim()));
+        if (event == null) {
+            eventsModified = -1; // reload on next use
+            return;
+        }
+        Map<String, Event> updated = new LinkedHashMap<>(events);
+        Event replaced = updated.put(event.getName(), event);
+        events = Collections.unmodifiableMap(updated);
+        version++;
+        if (searchIndex != null) {
+            searchIndex.put(event);
+        }
+        if (replaced != null) {
+            upcomingIndex.remove(replaced);
+        }
+        upcomingIndex.put(event);
+        fileWritten();
+        capacityChanged(replaced, event);
+    }
+
+    // Take an event the caller has just deleted from events.txt; same contract as putEvent
+    public synchronized void removeEvent(String name) {
+        Map<String, Event> updated = new LinkedHashMap<>(events);
+        Event removed = updated.remove(name);
+        events = Collections.unmodifiableMap(updated);
+        version++;
+        if (searchIndex != null) {
+            searchIndex.remove(name);
+        }
+        if (removed != null) {
+            upcomingIndex.remove(removed);
+        }
+        fileWritten();
+    }
+
+    private void capacityChanged(Event previous, Event event) {
+        if (previous == null || previous.getCapacity() != event.getCapacity()) {
+            for (CapacityListener listener : capacityListeners) {
+                listener.capacityChanged(event.getName(), event.getCapacity());
+            }
+        }
+    }
+
+    private void fileWritten() {
+        eventsModified = eventsFile.lastModified();
+        eventsSize = eventsFile.length();
+    }
+
+    private synchronized EventSearchIndex searchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new EventSearchIndex(events.values());
+        }
+        return searchIndex;
+    }
+
+    private Map<String, Event> readEvents() {
+        Map<String, Event> loaded = new LinkedHashMap<>();
+        if (!eventsFile.exists()) {
+            return loaded;
+        }
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (RecordScanner scanner = new RecordScanner(eventsFile, 0, true)) {
+            long rows = 0;
+            while (scanner.next()) {
+                rows++;
+                Metrics.ROWS_SCANNED.increment();
+                if (scanner.fieldCount() == 1 && scanner.fieldLength(0) == 0) {
+                    continue;
+                }
+                String line = scanner.lineString();
+                Event event = Event.parse(line, soldCounter(scanner.fieldString(0)));
+                if (event == null) {
+                    System.out.println("Skipping invalid event line: " + line);
+                    continue;
+                }
+                loaded.put(event.getName(), event);
+            }
+            Metrics.BYTES_READ.add(scanner.position());
+            LOAD_EVENTS.record(start);
+            scan.finish(eventsFile, scanner.position(), rows);
+        } catch (IOException e) {
+            LOAD_EVENTS.recordError(start);
+            System.out.println("Error reading events: " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    private AtomicInteger soldCounter(String eventName) {
+        return soldIndex.counter(eventName);
+    }
+}
@@ -0,0 +1,359 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory event search: case-folded inverted indexes from the words of event names and
+// locations to events, so every query word matches as a prefix ("jaz" finds "Jazz Night"),
+// and the events ordered by date for date ranges.
+// A query starts from whichever of its words or its date range has the fewest candidates and
+// checks the remaining criteria (other words, dates, price, availability) per candidate, so a
+// selective query costs in proportion to its matches, not to the size of the catalog.
+// Results are in date order. EventCatalog builds the index on the first search and then
+// applies admin edits one event at a time.
+public class EventSearchIndex {
+
+    private static final String[] NO_WORDS = new String[0];
+    private static final Comparator<Entry> BY_DATE = Comparator.comparing((Entry entry) -> entry.event.getDateTime()).thenComparing(entry -> entry.event.getName());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeMap<String, List<Entry>> nameWords = new TreeMap<>();
+    private final TreeMap<String, List<Entry>> locationWords = new TreeMap<>();
+    private final TreeMap<LocalDateTime, List<Entry>> byDate = new TreeMap<>();
+
+    // Search criteria; criteria left unset match every event
+    public static class Query {
+        private String name;
+        private String location;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private long minPriceCents = Long.MIN_VALUE;
+        private long maxPriceCents = Long.MAX_VALUE;
+        private boolean availableOnly;
+        private int limit = Integer.MAX_VALUE;
+
+        // Every word must start a word of the event name
+        public Query name(String text) {
+            name = text;
+            return this;
+        }
+
+        // Every word must start a word of the location
+        public Query location(String text) {
+            location = text;
+            return this;
+        }
+
+        // Events starting at or after this time
+        public Query from(LocalDateTime time) {
+            from = time;
+            return this;
+        }
+
+        // Events starting before this time
+        public Query to(LocalDateTime time) {
+            to = time;
+            return this;
+        }
+
+        // Raise the start of the date range to the given time if it is earlier
+        public Query notBefore(LocalDateTime time) {
+            if (from == null || from.isBefore(time)) {
+                from = time;
+            }
+            return this;
+        }
+
+        public Query minPriceCents(long cents) {
+            minPriceCents = cents;
+            return this;
+        }
+
+        public Query maxPriceCents(long cents) {
+            maxPriceCents = cents;
+            return this;
+        }
+
+        // Only events with tickets left
+        public Query availableOnly(boolean available) {
+            availableOnly = available;
+            return this;
+        }
+
+        // At most this many results (the earliest ones)
+        public Query limit(int max) {
+            limit = max;
+            return this;
+        }
+    }
+
+    // One indexed event with its case-folded words
+    private static class Entry {
+        final Event event;
+        final String[] nameWords;
+        final String[] locationWords;
+
+        Entry(Event event) {
+            this.event = event;
+            this.nameWords = words(event.getName());
+            this.locationWords = words(event.getLocation());
+        }
+    }
+
+    public EventSearchIndex(Collection<Event> events) {
+        for (Event event : events) {
+            add(event);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add an event, replacing any event with the same name
+    public void put(Event event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getName());
+            add(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String eventName) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.remove(eventName);
+            if (entry == null) {
+                return;
+            }
+            unindex(nameWords, entry.nameWords, entry);
+            unindex(locationWords, entry.locationWords, entry);
+            List<Entry> sameTime = byDate.get(entry.event.getDateTime());
+            sameTime.remove(entry);
+            if (sameTime.isEmpty()) {
+                byDate.remove(entry.event.getDateTime());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Event> search(Query query) {
+        String[] nameQuery = words(query.name);
+        String[] locationQuery = words(query.location);
+        lock.readLock().lock();
+        try {
+            // The query word with the fewest candidate events, if any
+            TreeMap<String, List<Entry>> bestIndex = null;
+            String bestWord = null;
+            long best = Long.MAX_VALUE;
+            for (String word : nameQuery) {
+                long size = candidateCount(nameWords, word, best);
+                if (size < best) {
+                    best = size;
+                    bestIndex = nameWords;
+                    bestWord = word;
+                }
+            }
+            for (String word : locationQuery) {
+                long size = candidateCount(locationWords, word, best);
+                if (size < best) {
+                    best = size;
+                    bestIndex = locationWords;
+                    bestWord = word;
+                }
+            }
+            if (bestIndex == null || query.from != null || query.to != null) {
+                // Walk the date range, unless it turns out to hold more events than the best word
+                List<Event> results = searchByDate(query, nameQuery, locationQuery, best);
+                if (results != null) {
+                    return results;
+                }
+            }
+            return searchByWord(bestIndex, bestWord, query, nameQuery, locationQuery);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Matches in date order, or null once more than maxVisits events have been looked at
+    private List<Event> searchByDate(Query query, String[] nameQuery, String[] locationQuery, long maxVisits) {
+        NavigableMap<LocalDateTime, List<Entry>> range = byDate;
+        if (query.from != null && query.to != null) {
+            if (!query.from.isBefore(query.to)) {
+                return new ArrayList<>();
+            }
+            range = byDate.subMap(query.from, true, query.to, false);
+        } else if (query.from != null) {
+            range = byDate.tailMap(query.from, true);
+        } else if (query.to != null) {
+            range = byDate.headMap(query.to, false);
+        }
+        List<Event> results = new ArrayList<>();
+        long visits = 0;
+        for (List<Entry> sameTime : range.values()) {
+            visits += sameTime.size();
+            if (visits > maxVisits) {
+                return null;
+            }
+            List<Entry> matches = new ArrayList<>();
+            for (Entry entry : sameTime) {
+                if (matches(entry, query, nameQuery, locationQuery)) {
+                    matches.add(entry);
+                }
+            }
+            matches.sort(BY_DATE);
+            for (Entry entry : matches) {
+                results.add(entry.event);
+                if (results.size() >= query.limit) {
+                    return results;
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<Event> searchByWord(TreeMap<String, List<Entry>> index, String word, Query query, String[] nameQuery, String[] locationQuery) {
+        boolean names = index == nameWords;
+        List<Entry> matches = new ArrayList<>();
+        for (Map.Entry<String, List<Entry>> postings : wordsStartingWith(index, word).entrySet()) {
+            for (Entry entry : postings.getValue()) {
+                // An event with several words starting with the prefix is only taken at the first of them
+                if (firstWithPrefix(names ? entry.nameWords : entry.locationWords, word, postings.getKey())
+                        && matches(entry, query, nameQuery, locationQuery)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        matches.sort(BY_DATE);
+        List<Event> results = new ArrayList<>(Math.min(matches.size(), query.limit));
+        for (Entry entry : matches) {
+            if (results.size() >= query.limit) {
+                break;
+            }
+            results.add(entry.event);
+        }
+        return results;
+    }
+
+    private static boolean matches(Entry entry, Query query, String[] nameQuery, String[] locationQuery) {
+        Event event = entry.event;
+        if (query.from != null && event.getDateTime().isBefore(query.from)) {
+            return false;
+        }
+        if (query.to != null && !event.getDateTime().isBefore(query.to)) {
+            return false;
+        }
+        if (event.getPriceCents() < query.minPriceCents || event.getPriceCents() > query.maxPriceCents) {
+            return false;
+        }
+        if (query.availableOnly && event.getAvailableTickets() == 0) {
+            return false;
+        }
+        return allPrefixes(nameQuery, entry.nameWords) && allPrefixes(locationQuery, entry.locationWords);
+    }
+
+    // Whether every query word starts one of the words
+    private static boolean allPrefixes(String[] queryWords, String[] words) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether no word of the event before this one (in index order) also starts with the prefix
+    private static boolean firstWithPrefix(String[] words, String prefix, String word) {
+        for (String other : words) {
+            if (other.compareTo(word) < 0 && other.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Events indexed under words starting with the prefix (counting an event once per word), stopping at cap
+    private static long candidateCount(TreeMap<String, List<Entry>> index, String prefix, long cap) {
+        long count = 0;
+        for (List<Entry> postings : wordsStartingWith(index, prefix).values()) {
+            count += postings.size();
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static NavigableMap<String, List<Entry>> wordsStartingWith(TreeMap<String, List<Entry>> index, String prefix) {
+        return index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void add(Event event) {
+        Entry entry = new Entry(event);
+        entries.put(event.getName(), entry);
+        for (String word : entry.nameWords) {
+            nameWords.computeIfAbsent(word, k -> new ArrayList<>(1)).add(entry);
+        }
+        for (String word : entry.locationWords) {
+            locationWords.computeIfAbsent(word, k -> new ArrayList<>(1)).add(entry);
+        }
+        byDate.computeIfAbsent(event.getDateTime(), k -> new ArrayList<>(1)).add(entry);
+    }
+
+    private static void unindex(TreeMap<String, List<Entry>> index, String[] words, Entry entry) {
+        for (String word : words) {
+            List<Entry> postings = index.get(word);
+            postings.remove(entry);
+            if (postings.isEmpty()) {
+                index.remove(word);
+            }
+        }
+    }
+
+    // Distinct lower-case words of the text (runs of letters and digits)
+    static String[] words(String text) {
+        if (text == null) {
+            return NO_WORDS;
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = folded.substring(start, i);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words.isEmpty() ? NO_WORDS : words.toArray(NO_WORDS);
+    }
+}
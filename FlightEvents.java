@@ -0,0 +1,187 @@
+import java.awt.event.ActionListener;
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Java Flight Recorder events for the work that can stall the dashboard: file scans, journal
+// commits, bookings and cancellations, booking log rewrites and button handlers on the EDT.
+// They are disabled unless a recording enables them, e.g. with the profile shipped as musicevent.jfc:
+//     java -XX:StartFlightRecording:settings=musicevent.jfc,filename=musicevent.jfr MusicEventApp
+// and then open the recording in JDK Mission Control next to the JDK's own I/O, GC and lock events.
+// A disabled event is never committed, so the begin/finish pairs cost next to nothing.
+public class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    // One pass over a data file (or a byte range of it)
+    @Name("musicevent.FileScan")
+    @Label("File Scan")
+    @Category({"Music Event", "I/O"})
+    @Description("Sequential read of a data file")
+    @StackTrace(false)
+    public static class FileScan extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Bytes Read")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+
+        @Label("Lines")
+        long lines;
+
+        // End the event and commit it with what was read
+        void finish(File scanned, long bytesRead, long linesRead) {
+            end();
+            if (shouldCommit()) {
+                file = scanned.getPath();
+                bytes = bytesRead;
+                lines = linesRead;
+                commit();
+            }
+        }
+    }
+
+    // One group commit of the booking journal: a single write and force() for the batch
+    @Name("musicevent.JournalCommit")
+    @Label("Journal Commit")
+    @Category({"Music Event", "I/O"})
+    @StackTrace(false)
+    public static class JournalCommit extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Records")
+        int records;
+
+        @Label("Bytes Written")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+
+        @Label("Succeeded")
+        boolean succeeded;
+
+        void finish(File written, int recordCount, long bytesWritten, boolean ok) {
+            end();
+            if (shouldCommit()) {
+                file = written.getPath();
+                records = recordCount;
+                bytes = bytesWritten;
+                succeeded = ok;
+                commit();
+            }
+        }
+    }
+
+    // A booking or cancellation through BookingService, from admission to a durable record
+    @Name("musicevent.Booking")
+    @Label("Booking")
+    @Category("Music Event")
+    public static class Booking extends Event {
+        @Label("Operation")
+        @Description("book or cancel")
+        String operation;
+
+        @Label("User")
+        String user;
+
+        @Label("Event")
+        String event;
+
+        @Label("Booking ID")
+        String bookingId;
+
+        @Label("Tickets")
+        int tickets;
+
+        @Label("Outcome")
+        @Description("committed, rejected or failed")
+        String outcome;
+
+        @Label("Message")
+        String message;
+
+        void finish(String op, String username, String eventName, String id, int ticketCount, String result, String detail) {
+            end();
+            if (shouldCommit()) {
+                operation = op;
+                user = username;
+                event = eventName;
+                bookingId = id;
+                tickets = ticketCount;
+                outcome = result;
+                message = detail;
+                commit();
+            }
+        }
+    }
+
+    // Compaction rewriting the booking log without cancelled bookings and their tombstones
+    @Name("musicevent.LogRewrite")
+    @Label("Booking Log Rewrite")
+    @Category({"Music Event", "I/O"})
+    @StackTrace(false)
+    public static class LogRewrite extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Bytes Before")
+        @DataAmount(DataAmount.BYTES)
+        long bytesBefore;
+
+        @Label("Bytes After")
+        @DataAmount(DataAmount.BYTES)
+        long bytesAfter;
+
+        @Label("Cancelled Bookings Removed")
+        int removed;
+
+        void finish(File rewritten, long before, long after, int cancelledRemoved) {
+            end();
+            if (shouldCommit()) {
+                file = rewritten.getPath();
+                bytesBefore = before;
+                bytesAfter = after;
+                removed = cancelledRemoved;
+                commit();
+            }
+        }
+    }
+
+    // Time a button handler spends on the event dispatch thread
+    @Name("musicevent.UiAction")
+    @Label("UI Action")
+    @Category({"Music Event", "Swing"})
+    @StackTrace(false)
+    public static class UiAction extends Event {
+        @Label("Window")
+        String window;
+
+        @Label("Action")
+        String action;
+    }
+
+    // Wrap a listener so every call is recorded as a UiAction
+    public static ActionListener uiAction(String window, String action, ActionListener listener) {
+        return e -> {
+            UiAction event = new UiAction();
+            event.begin();
+            try {
+                listener.actionPerformed(e);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.window = window;
+                    event.action = action;
+                    event.commit();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Concurrent load test over the member code paths: every simulated member is a thread that
+// browses upcoming shows, lists its bookings, books seats on a Zipf-chosen event and cancels its
+// own bookings, through BookingService and the listing methods MemberDashboard runs off the EDT.
+// Prints per-operation throughput and p50/p99/p999 latency, then checks the booking log:
+// no event over capacity, no seat held by two active bookings, seat count matching ticket count,
+// no admission left held, and no duplicate booking IDs. Exits with status 1 if a check fails.
+// Run it in a directory created by DatasetGenerator (it books against the files there):
+// Usage: java LoadHarness [members] [seconds] [thinkMillis] [zipfExponent]
+//        (defaults: 200 members, 30 seconds, no think time, exponent 1.1)
+public class LoadHarness {
+
+    private static final String[] OPERATIONS = {"upcoming shows", "my bookings", "book", "cancel"};
+    private static final int[] MIX = {50, 15, 25, 10}; // percent of operations
+    private static final int UPCOMING = 0;
+    private static final int MY_BOOKINGS = 1;
+    private static final int BOOK = 2;
+    private static final int CANCEL = 3;
+
+    // Latencies and outcomes recorded by one member thread
+    private static class Samples {
+        final long[][] nanos = new long[OPERATIONS.length][1024];
+        final int[] counts = new int[OPERATIONS.length];
+        final int[] rejected = new int[OPERATIONS.length];
+
+        void add(int operation, long elapsed, boolean ok) {
+            if (counts[operation] == nanos[operation].length) {
+                nanos[operation] = Arrays.copyOf(nanos[operation], counts[operation] * 2);
+            }
+            nanos[operation][counts[operation]++] = elapsed;
+            if (!ok) {
+                rejected[operation]++;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        System.setProperty("java.awt.headless", "true");
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int thinkMillis = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 1.1;
+
+        List<Event> upcoming = BookingService.getInstance().upcomingShows();
+        if (upcoming.isEmpty()) {
+            System.out.println("No upcoming events in events.txt; run DatasetGenerator first.");
+            System.exit(1);
+        }
+        DatasetGenerator.Zipf popularity = new DatasetGenerator.Zipf(upcoming.size(), exponent);
+        System.out.println(members + " members, " + seconds + " s, " + upcoming.size() + " upcoming events");
+
+        List<Samples> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        for (int m = 0; m < members; m++) {
+            String username = "member" + m;
+            Samples samples = new Samples();
+            results.add(samples);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    runMember(username, samples, upcoming, popularity, deadline[0], thinkMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "member-" + m);
+            threads.add(thread);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + seconds * 1_000_000_000L;
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        BookingJournal.getInstance().flush();
+
+        report(results, elapsed);
+        boolean ok = checkInvariants();
+        System.out.println(ok ? "All invariants hold." : "INVARIANT CHECK FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static void runMember(String username, Samples samples, List<Event> events, DatasetGenerator.Zipf popularity,
+                                  long deadline, int thinkMillis) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> myBookings = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            int operation = 0;
+            while (roll >= MIX[operation]) {
+                roll -= MIX[operation++];
+            }
+            if (operation == CANCEL && myBookings.isEmpty()) {
+                operation = BOOK;
+            }
+            long started = System.nanoTime();
+            boolean ok = true;
+            switch (operation) {
+                case UPCOMING:
+                    MemberDashboard.upcomingShows();
+                    break;
+                case MY_BOOKINGS:
+                    MemberDashboard.myBookings(username);
+                    break;
+                case BOOK:
+                    Event event = events.get(popularity.sample(random.nextDouble()));
+                    try {
+                        List<String> seats = freeSeats(event, 1 + random.nextInt(4), random);
+                        if (seats.isEmpty()) {
+                            throw new BookingException("Sold out");
+                        }
+                        myBookings.add(BookingService.getInstance().book(username, event.getName(), seats));
+                    } catch (BookingException | IOException e) {
+                        ok = false;
+                    }
+                    break;
+                default:
+                    try {
+                        BookingService.getInstance().cancel(username, myBookings.remove(random.nextInt(myBookings.size())));
+                    } catch (BookingException | IOException e) {
+                        ok = false;
+                    }
+                    break;
+            }
+            samples.add(operation, System.nanoTime() - started, ok);
+            if (thinkMillis > 0) {
+                Thread.sleep(random.nextInt(thinkMillis * 2 + 1));
+            }
+        }
+    }
+
+    // Up to count seats that look free on the seat map, from a random starting point;
+    // another member may still take them first, which the booking then rejects
+    private static List<String> freeSeats(Event event, int count, ThreadLocalRandom random) throws IOException {
+        List<String> seats = new ArrayList<>();
+        int capacity = Math.min(event.getCapacity(), 2600);
+        int first = random.nextInt(capacity);
+        for (int i = 0; i < capacity && seats.size() < count; i++) {
+            int position = (first + i) % capacity;
+            String seat = (char) ('A' + position / 100) + String.valueOf(position % 100);
+            if (!SeatInventory.getInstance().isTaken(event.getName(), seat)) {
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    private static void report(List<Samples> results, double elapsed) {
+        System.out.printf("%-15s %9s %9s %10s %9s %9s %9s %9s%n", "operation", "count", "rejected", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int total = 0;
+            int rejected = 0;
+            for (Samples samples : results) {
+                total += samples.counts[op];
+                rejected += samples.rejected[op];
+            }
+            long[] all = new long[total];
+            int filled = 0;
+            for (Samples samples : results) {
+                System.arraycopy(samples.nanos[op], 0, all, filled, samples.counts[op]);
+                filled += samples.counts[op];
+            }
+            Arrays.sort(all);
+            System.out.printf("%-15s %9d %9d %10.1f %9.2f %9.2f %9.2f %9.2f%n", OPERATIONS[op], total, rejected, total / elapsed,
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), total == 0 ? 0.0 : all[total - 1] / 1e6);
+            if (op == BOOK) {
+                System.out.printf("%-15s %9d %9s %10.1f%n", "  bookings/s", total - rejected, "", (total - rejected) / elapsed);
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static boolean checkInvariants() throws IOException {
+        boolean ok = true;
+        EventCatalog catalog = EventCatalog.getInstance();
+        Map<String, Integer> sold = new HashMap<>();
+        Map<String, Set<String>> seatsByEvent = new HashMap<>();
+        Set<String> bookingIds = new HashSet<>();
+        int duplicateIds = 0;
+        for (BookingRecord record : BookingLog.readActive(new File("ticket_bookings.txt"), r -> true)) {
+            sold.merge(record.getEventName(), record.getTicketCount(), Integer::sum);
+            if (record.getSeatList().size() != record.getTicketCount()) {
+                System.out.println("Seat count does not match tickets in booking " + record.getBookingId());
+                ok = false;
+            }
+            Set<String> taken = seatsByEvent.computeIfAbsent(record.getEventName(), k -> new HashSet<>());
+            for (String seat : record.getSeatList()) {
+                if (!taken.add(seat)) {
+                    System.out.println("Seat " + seat + " of " + record.getEventName() + " is booked twice (booking " + record.getBookingId() + ")");
+                    ok = false;
+                }
+            }
+            if (!bookingIds.add(record.getBookingId())) {
+                duplicateIds++;
+            }
+        }
+        for (Map.Entry<String, Integer> entry : sold.entrySet()) {
+            int capacity = catalog.getCapacity(entry.getKey());
+            if (entry.getValue() > capacity) {
+                System.out.println("Oversold " + entry.getKey() + ": " + entry.getValue() + " of " + capacity);
+                ok = false;
+            }
+            int held = capacity - TicketAdmission.getInstance().remaining(entry.getKey());
+            if (held != entry.getValue()) {
+                System.out.println("Admission for " + entry.getKey() + " holds " + held + " tickets, the log has " + entry.getValue());
+                ok = false;
+            }
+        }
+        if (duplicateIds > 0) {
+            System.out.println(duplicateIds + " active bookings reuse a booking ID");
+            ok = false;
+        }
+        return ok;
+    }
+}
@@ -1,6 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginForm extends JFrame {
 
@@ -80,32 +80,22 @@ public class LoginForm extends JFrame {
                     return;
                 }
 
-                File file = new File("admin_credentials.txt");
-                if (!file.exists()) {
-                    JOptionPane.showMessageDialog(this, "Admin credentials file not found.");
-                    return;
-                }
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    boolean isValidAdmin = false;
-
-                    while ((line = reader.readLine()) != null) {
-                        String[] parts = line.split(",");
-                        if (parts.length >= 2 && parts[0].equals(adminUsername) && parts[1].equals(adminPasscode)) {
-                            isValidAdmin = true;
-                            break;
-                        }
-                    }
-
-                    if (isValidAdmin) {
+                loginBtn.setEnabled(false);
+                // The file check and the hash both run off the EDT; null means the file is missing
+                CredentialStore store = CredentialStore.admins();
+                AsyncRepository.supply(store::fileExists).thenCompose(exists -> exists ? store.authenticate(adminUsername, adminPasscode) : CompletableFuture.completedFuture((Boolean) null)).whenComplete((isValidAdmin, ex) -> SwingUtilities.invokeLater(() -> {
+                    loginBtn.setEnabled(true);
+                    if (ex == null && isValidAdmin == null) {
+                        JOptionPane.showMessageDialog(this, "Admin credentials file not found.");
+                    } else if (ex != null) {
+                        JOptionPane.showMessageDialog(this, "Error reading admin data: " + ex.getCause().getMessage());
+                    } else if (isValidAdmin) {
                         new AdminPanel();
                         dispose();
                     } else {
                         JOptionPane.showMessageDialog(this, "Invalid admin username or passcode.");
                     }
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(this, "Error reading admin data: " + ex.getMessage());
-                }
+                }));
             } else {
                 // Member login
                 String username = usernameField.getText().trim();
@@ -115,30 +105,22 @@ public class LoginForm extends JFrame {
                     JOptionPane.showMessageDialog(this, "Please enter both username and password.");
                     return;
                 }
-                File file = new File("member_credentials.txt");
-                if (!file.exists()) {
-                    JOptionPane.showMessageDialog(this, "Member credentials file not found.");
-                    return;
-                }
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    boolean isValidUser = false;
-                    while ((line = reader.readLine()) != null) {
-                        String[] parts = line.split(",");
-                        if (parts.length >= 2 && parts[0].equals(username) && parts[1].equals(password)) {
-                            isValidUser = true;
-                            break;
-                        }
-                    }
-                    if (isValidUser) {
+                loginBtn.setEnabled(false);
+                // The file check and the hash both run off the EDT; null means the file is missing
+                CredentialStore store = CredentialStore.members();
+                AsyncRepository.supply(store::fileExists).thenCompose(exists -> exists ? store.authenticate(username, password) : CompletableFuture.completedFuture((Boolean) null)).whenComplete((isValidUser, ex) -> SwingUtilities.invokeLater(() -> {
+                    loginBtn.setEnabled(true);
+                    if (ex == null && isValidUser == null) {
+                        JOptionPane.showMessageDialog(this, "Member credentials file not found.");
+                    } else if (ex != null) {
+                        JOptionPane.showMessageDialog(this, "Error reading user data: " + ex.getCause().getMessage());
+                    } else if (isValidUser) {
                         new MemberDashboard(username);
                         dispose();
                     } else {
                         JOptionPane.showMessageDialog(this, "Invalid username or password.");
                     }
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(this, "Error reading user data: " + ex.getMessage());
-                }
+                }));
             }
         });
 
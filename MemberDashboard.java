@@ -1,19 +1,28 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionListener;
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class MemberDashboard extends JFrame {
 
+    private static final int SHOWS_PER_PAGE = 50;
+
     private String username;
     private JTextArea outputArea;
+    private final JButton moreShowsBtn = new JButton("More Shows");
+    private Event lastShowListed; // last show on the current page of upcoming shows
+    private final UiTaskRunner tasks = new UiTaskRunner(this);
 
     public MemberDashboard(String username) {
         this.username = username;
-        initializeEventsFile(); // Initialize events file if it doesn't exist
+        tasks.submit(null, () -> {
+            initializeEventsFile(); // Initialize events file if it doesn't exist
+            return null;
+        }, v -> { });
         setTitle("Member Dashboard - Event Management System");
         setSize(1470, 800);
         setLocationRelativeTo(null);
@@ -44,6 +53,7 @@ public class MemberDashboard extends JFrame {
 
         buttonPanel.add(viewBookingsBtn);
         buttonPanel.add(upcomingShowsBtn);
+        buttonPanel.add(moreShowsBtn);
         buttonPanel.add(pastBookingsBtn);
         buttonPanel.add(cancelBookingBtn);
         buttonPanel.add(bookEventTicketBtn);
@@ -53,14 +63,16 @@ public class MemberDashboard extends JFrame {
         add(buttonPanel, BorderLayout.SOUTH);
 
         // Action listeners
-        viewBookingsBtn.addActionListener(e -> displayBookings());
-        upcomingShowsBtn.addActionListener(e -> displayUpcomingShows());
-        pastBookingsBtn.addActionListener(e -> displayPastBookings());
-        cancelBookingBtn.addActionListener(e -> cancelBooking());
-        bookEventTicketBtn.addActionListener(e -> openEventBookingForm());
-        searchEventsBtn.addActionListener(e -> searchEvents());
-        manageProfileBtn.addActionListener(e -> manageProfile());
-        logoutBtn.addActionListener(e -> {
+        onClick(viewBookingsBtn, e -> displayBookings());
+        onClick(upcomingShowsBtn, e -> displayUpcomingShows(null));
+        onClick(moreShowsBtn, e -> displayUpcomingShows(lastShowListed));
+        moreShowsBtn.setEnabled(false);
+        onClick(pastBookingsBtn, e -> displayPastBookings());
+        onClick(cancelBookingBtn, e -> cancelBooking());
+        onClick(bookEventTicketBtn, e -> openEventBookingForm());
+        onClick(searchEventsBtn, e -> searchEvents());
+        onClick(manageProfileBtn, e -> manageProfile());
+        onClick(logoutBtn, e -> {
             new MusicEventApp();
             dispose();
         });
@@ -68,6 +80,11 @@ public class MemberDashboard extends JFrame {
         setVisible(true);
     }
 
+    // Button handler recorded as a FlightEvents.UiAction named after the button
+    private void onClick(JButton button, ActionListener listener) {
+        button.addActionListener(FlightEvents.uiAction("MemberDashboard", button.getText(), listener));
+    }
+
     // Initialize events file with sample data if it doesn't exist
     private void initializeEventsFile() {
         File file = new File("events.txt");
@@ -81,24 +98,27 @@ public class MemberDashboard extends JFrame {
         }
     }
 
-    // Open event booking form
+    // Open event booking form once the event list has loaded
     private void openEventBookingForm() {
+        tasks.submit("bookingForm", () -> BookingService.getInstance().getEvents(), this::showEventBookingForm);
+    }
+
+    private void showEventBookingForm(List<Event> events) {
+        if (events.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No events available to book.");
+            return;
+        }
         JFrame bookingFrame = new JFrame("Book Event Ticket");
         bookingFrame.setSize(400, 300);
         bookingFrame.setLocationRelativeTo(null);
         bookingFrame.setLayout(new GridLayout(8, 2, 10, 10));
+        UiTaskRunner bookingTasks = new UiTaskRunner(bookingFrame);
 
         // Event selection
         JLabel eventLabel = new JLabel("Select Event:");
         JComboBox<String> eventComboBox = new JComboBox<>();
-        List<String> events = loadEvents();
-        if (events.isEmpty()) {
-            JOptionPane.showMessageDialog(bookingFrame, "No events available to book.");
-            bookingFrame.dispose();
-            return;
-        }
-        for (String event : events) {
-            eventComboBox.addItem(event);
+        for (Event event : events) {
+            eventComboBox.addItem(event.toDisplayString());
         }
 
         // Event details
@@ -139,7 +159,7 @@ public class MemberDashboard extends JFrame {
 
         // Book button
         JButton bookButton = new JButton("Book");
-        bookButton.addActionListener(e -> {
+        bookButton.addActionListener(FlightEvents.uiAction("MemberDashboard", "Book", e -> {
             String selectedEvent = (String) eventComboBox.getSelectedItem();
             String seats = seatsField.getText().trim();
             String ticketCountStr = ticketCountField.getText().trim();
@@ -150,30 +170,28 @@ public class MemberDashboard extends JFrame {
                 return;
             }
 
-            // Validate seats format (e.g., A1,A2,A3)
-            if (!seats.matches("[A-Z][0-9](,[A-Z][0-9])*")) {
+            // Validate seats format (e.g., A1,A2,A3), by the same rule as the seat inventory
+            String[] seatArray = seats.split(",");
+            if (SeatInventory.parseSeats(Arrays.asList(seatArray)) == null) {
                 JOptionPane.showMessageDialog(bookingFrame, "Invalid seats format. Use comma-separated seats, e.g., A1,A2,A3.");
                 return;
             }
 
             try {
                 int ticketCount = Integer.parseInt(ticketCountStr);
-                int availableTickets = Integer.parseInt(availableTicketsValue.getText());
-                if (ticketCount <= 0 || ticketCount > availableTickets) {
-                    JOptionPane.showMessageDialog(bookingFrame, "Invalid ticket count or exceeds available tickets.");
+                if (ticketCount <= 0) {
+                    JOptionPane.showMessageDialog(bookingFrame, "Invalid ticket count.");
                     return;
                 }
 
                 // Validate event date (must be in the future)
-                String dateTimeStr = dateTimeValue.getText();
-                LocalDateTime eventDateTime = LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                if (eventDateTime.isBefore(LocalDateTime.now())) {
+                String eventName = selectedEvent.split(", ")[0].split(": ")[1];
+                if (events.get(eventComboBox.getSelectedIndex()).hasStarted()) {
                     JOptionPane.showMessageDialog(bookingFrame, "Cannot book past events.");
                     return;
                 }
 
                 // Validate number of seats matches ticket count
-                String[] seatArray = seats.split(",");
                 int seatCount = seatArray.length;
                 if (seatCount != ticketCount) {
                     JOptionPane.showMessageDialog(bookingFrame, "Number of seats (" + seatCount + ") must match ticket count (" + ticketCount + ").");
@@ -193,28 +211,26 @@ public class MemberDashboard extends JFrame {
                     return;
                 }
 
-                // Generate booking ID
-                String bookingId = "B" + System.currentTimeMillis();
-                String eventName = selectedEvent.split(", ")[0].split(": ")[1];
-
-                // Log booking
-                try {
-                    AdminPanel.logTicketBooking(username, eventName, ticketCount, seats, bookingId);
+                // Admission and the journal write happen off the EDT
+                bookButton.setEnabled(false);
+                bookingTasks.submit(null, () -> BookingService.getInstance().book(username, eventName, Arrays.asList(seatArray)), id -> {
+                    bookButton.setEnabled(true);
                     JOptionPane.showMessageDialog(
                         bookingFrame,
-                        "Booking successful!\nBooking ID: " + bookingId + "\nSeats: " + seats
+                        "Booking successful!\nBooking ID: " + id + "\nSeats: " + seats
                     );
                     bookingFrame.dispose();
                     displayBookings(); // Refresh bookings
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(bookingFrame, "Error logging booking: " + ex.getMessage());
-                }
+                }, error -> {
+                    bookButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(bookingFrame, error.getMessage());
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(bookingFrame, "Invalid ticket count format.");
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(bookingFrame, "Error processing booking: " + ex.getMessage());
             }
-        });
+        }));
 
         // Add components to frame
         bookingFrame.add(eventLabel);
@@ -237,163 +253,83 @@ public class MemberDashboard extends JFrame {
         bookingFrame.setVisible(true);
     }
 
-    // Load events for booking form
-    private List<String> loadEvents() {
-        List<String> events = new ArrayList<>();
-        File file = new File("events.txt");
-        if (!file.exists()) {
-            System.out.println("Events file not found.");
-            return events;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    try {
-                        String eventName = parts[0].trim();
-                        String price = parts[1].trim();
-                        String dateTime = parts[2].trim();
-                        String location = parts[3].trim();
-                        // Validate date format
-                        LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                        int availableTickets = calculateAvailableTickets(eventName);
-                        events.add("Event: " + eventName + ", Price: $" + price + ", Date/Time: " + dateTime + ", Location: " + location + ", Available Tickets: " + availableTickets);
-                    } catch (Exception e) {
-                        System.out.println("Skipping invalid event line: " + line);
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading events: " + e.getMessage());
-        }
-        return events;
-    }
-
     // Display user's bookings
     private void displayBookings() {
+        tasks.submit("output", () -> myBookings(username), outputArea::setText);
+    }
+
+    // Listing texts are static so LoadHarness can render them exactly as the dashboard does
+    static String myBookings(String username) {
         List<String> bookings = new ArrayList<>();
-        File file = new File("ticket_bookings.txt");
-        if (!file.exists()) {
-            outputArea.setText("No bookings file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6 && parts[0].trim().equals(username)) {
-                    String eventType = parts[1].trim();
-                    String ticketCount = parts[2].trim();
-                    String timestamp = parts[3].trim();
-                    String seats = parts[4].trim();
-                    String bookingId = parts[5].trim();
-                    String eventDateTime = getEventDateTime(eventType);
-                    bookings.add("Booking ID: " + bookingId + ", Event: " + eventType + ", Tickets: " + ticketCount + ", Seats: " + seats + ", Date/Time: " + eventDateTime + ", Booked: " + timestamp);
-                }
+        try {
+            for (BookingRecord record : BookingService.getInstance().activeBookings(username)) {
+                bookings.add(bookingLine(record));
             }
         } catch (IOException e) {
-            outputArea.setText("Error reading bookings: " + e.getMessage());
-            return;
+            return "Error reading bookings: " + e.getMessage();
         }
+        return listing("My Bookings:", bookings, "No bookings found.");
+    }
 
-        outputArea.setText("My Bookings:\n");
-        if (bookings.isEmpty()) {
-            outputArea.append("No bookings found.\n");
-        } else {
-            for (String booking : bookings) {
-                outputArea.append(booking + "\n");
+    // Display a page of upcoming shows after the given one (null for the first page)
+    private void displayUpcomingShows(Event after) {
+        tasks.submit("output", () -> BookingService.getInstance().upcomingShows(after, SHOWS_PER_PAGE + 1), page -> {
+            boolean more = page.size() > SHOWS_PER_PAGE;
+            List<Event> shown = more ? page.subList(0, SHOWS_PER_PAGE) : page;
+            if (!shown.isEmpty()) {
+                lastShowListed = shown.get(shown.size() - 1);
             }
-        }
+            moreShowsBtn.setEnabled(more);
+            outputArea.setText(upcomingListing(shown, more));
+        });
     }
 
-    // Display upcoming shows
-    private void displayUpcomingShows() {
-        LocalDateTime now = LocalDateTime.now();
-        List<String> shows = new ArrayList<>();
-        File file = new File("events.txt");
-        if (!file.exists()) {
-            outputArea.setText("No events file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    String eventName = parts[0].trim();
-                    String price = parts[1].trim();
-                    String dateTimeStr = parts[2].trim();
-                    String location = parts[3].trim();
-                    try {
-                        LocalDateTime eventDateTime = LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                        if (eventDateTime.isAfter(now)) {
-                            int availableTickets = calculateAvailableTickets(eventName);
-                            shows.add("Event: " + eventName + ", Price: $" + price + ", Date/Time: " + dateTimeStr + ", Location: " + location + ", Available Tickets: " + availableTickets);
-                        }
-                    } catch (Exception e) {
-                        // Skip invalid date/time formats
-                    }
-                }
-            }
-        } catch (IOException e) {
-            outputArea.setText("Error reading events: " + e.getMessage());
-            return;
-        }
+    // The first page of upcoming shows as displayed
+    static String upcomingShows() {
+        List<Event> page = BookingService.getInstance().upcomingShows(null, SHOWS_PER_PAGE + 1);
+        boolean more = page.size() > SHOWS_PER_PAGE;
+        return upcomingListing(more ? page.subList(0, SHOWS_PER_PAGE) : page, more);
+    }
 
-        outputArea.setText("Upcoming Shows:\n");
-        if (shows.isEmpty()) {
-            outputArea.append("No upcoming shows found.\n");
-        } else {
-            for (String show : shows) {
-                outputArea.append(show + "\n");
-            }
+    private static String upcomingListing(List<Event> page, boolean more) {
+        List<String> shows = new ArrayList<>();
+        for (Event event : page) {
+            shows.add(event.toDisplayString());
         }
+        String text = listing("Upcoming Shows:", shows, "No upcoming shows found.");
+        return more ? text + "(More Shows for the next " + SHOWS_PER_PAGE + ")\n" : text;
     }
 
     // Display past bookings
     private void displayPastBookings() {
-        LocalDateTime now = LocalDateTime.now();
-        List<String> bookings = new ArrayList<>();
-        File file = new File("ticket_bookings.txt");
-        if (!file.exists()) {
-            outputArea.setText("No bookings file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6 && parts[0].trim().equals(username)) {
-                    String eventType = parts[1].trim();
-                    String ticketCount = parts[2].trim();
-                    String timestamp = parts[3].trim();
-                    String seats = parts[4].trim();
-                    String bookingId = parts[5].trim();
-                    String eventDateTimeStr = getEventDateTime(eventType);
-                    try {
-                        LocalDateTime eventDateTime = LocalDateTime.parse(eventDateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                        if (eventDateTime.isBefore(now)) {
-                            bookings.add("Booking ID: " + bookingId + ", Event: " + eventType + ", Tickets: " + ticketCount + ", Seats: " + seats + ", Date/Time: " + eventDateTimeStr + ", Booked: " + timestamp);
-                        }
-                    } catch (Exception e) {
-                        // Skip invalid date/time formats
-                    }
+        tasks.submit("output", () -> {
+            List<String> bookings = new ArrayList<>();
+            try {
+                for (BookingRecord record : BookingService.getInstance().pastBookings(username)) {
+                    bookings.add(bookingLine(record));
                 }
+            } catch (IOException e) {
+                return "Error reading bookings: " + e.getMessage();
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading bookings: " + e.getMessage());
-            return;
-        }
+            return listing("Past Bookings:", bookings, "No past bookings found.");
+        }, outputArea::setText);
+    }
 
-        outputArea.setText("Past Bookings:\n");
-        if (bookings.isEmpty()) {
-            outputArea.append("No past bookings found.\n");
-        } else {
-            for (String booking : bookings) {
-                outputArea.append(booking + "\n");
-            }
+    private static String bookingLine(BookingRecord record) {
+        return "Booking ID: " + record.getBookingId() + ", Event: " + record.getEventName() + ", Tickets: " + record.getTicketCount() + ", Seats: " + record.getSeats()
+                + ", Date/Time: " + BookingService.getInstance().getEventDateTime(record.getEventName()) + ", Booked: " + record.getTimestamp();
+    }
+
+    // Heading plus one line per entry, or the empty message
+    private static String listing(String heading, List<String> lines, String emptyMessage) {
+        StringBuilder text = new StringBuilder(heading).append("\n");
+        if (lines.isEmpty()) {
+            text.append(emptyMessage).append("\n");
         }
+        for (String line : lines) {
+            text.append(line).append("\n");
+        }
+        return text.toString();
     }
 
     // Cancel a booking
@@ -403,112 +339,54 @@ public class MemberDashboard extends JFrame {
             outputArea.setText("Booking ID cannot be empty.");
             return;
         }
-        List<String> bookings = new ArrayList<>();
-        boolean found = false;
-        String eventType = null;
-        File file = new File("ticket_bookings.txt");
-        if (!file.exists()) {
-            outputArea.setText("No bookings file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 6 && parts[0].trim().equals(username) && parts[5].trim().equals(bookingId)) {
-                    eventType = parts[1].trim();
-                    found = true;
-                } else {
-                    bookings.add(line);
-                }
-            }
-        } catch (IOException e) {
-            outputArea.setText("Error reading bookings: " + e.getMessage());
-            return;
-        }
-        if (!found) {
-            outputArea.setText("Booking ID '" + bookingId + "' not found or does not belong to you.");
-            return;
-        }
-        // Check if event is in the past
-        String eventDateTimeStr = getEventDateTime(eventType);
-        try {
-            LocalDateTime eventDateTime = LocalDateTime.parse(eventDateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            if (eventDateTime.isBefore(LocalDateTime.now())) {
-                outputArea.setText("Cannot cancel bookings for past events.");
-                return;
-            }
-        } catch (Exception e) {
-            // Assume valid if date parsing fails
-        }
-        try (FileWriter writer = new FileWriter(file)) {
-            for (String booking : bookings) {
-                writer.write(booking + "\n");
+        tasks.submit(null, () -> {
+            try {
+                BookingService.getInstance().cancel(username, bookingId);
+            } catch (BookingException | IOException e) {
+                return e.getMessage();
             }
-        } catch (IOException e) {
-            outputArea.setText("Error updating bookings: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Booking ID '" + bookingId + "' cancelled successfully.\n");
+            return "Booking ID '" + bookingId + "' cancelled successfully.\n";
+        }, outputArea::setText);
     }
 
     // Search events by type, location, or date
     private void searchEvents() {
         String eventType = JOptionPane.showInputDialog(this, "Enter event type (or leave blank):");
         String location = JOptionPane.showInputDialog(this, "Enter location (or leave blank):");
-        String dateStr = JOptionPane.showInputDialog(this, "Enter date (yyyy-MM-dd) or leave blank:");
-        LocalDateTime now = LocalDateTime.now();
-        List<String> shows = new ArrayList<>();
-        File file = new File("events.txt");
-        if (!file.exists()) {
-            outputArea.setText("No events file found.");
-            return;
+        String dateStr = JOptionPane.showInputDialog(this, "Enter date (yyyy-MM-dd), date range (yyyy-MM-dd..yyyy-MM-dd) or leave blank:");
+        String priceStr = JOptionPane.showInputDialog(this, "Enter price range (e.g., 20-80) or leave blank:");
+        EventSearchIndex.Query query = new EventSearchIndex.Query().name(eventType).location(location);
+        if (dateStr != null && !dateStr.trim().isEmpty()) {
+            try {
+                String[] range = dateStr.split("\\.\\.", 2);
+                query.from(LocalDate.parse(range[0].trim()).atStartOfDay());
+                query.to(LocalDate.parse(range[range.length - 1].trim()).plusDays(1).atStartOfDay());
+            } catch (Exception e) {
+                outputArea.setText("Search Results:\nNo matching events found.\n");
+                return;
+            }
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    String eventName = parts[0].trim();
-                    String price = parts[1].trim();
-                    String dateTimeStr = parts[2].trim();
-                    String eventLocation = parts[3].trim();
-                    boolean matches = true;
-                    if (eventType != null && !eventType.trim().isEmpty() && !eventName.toLowerCase().contains(eventType.toLowerCase())) {
-                        matches = false;
-                    }
-                    if (location != null && !location.trim().isEmpty() && !eventLocation.toLowerCase().contains(location.toLowerCase())) {
-                        matches = false;
-                    }
-                    if (dateStr != null && !dateStr.trim().isEmpty()) {
-                        try {
-                            LocalDateTime eventDateTime = LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                            LocalDateTime searchDate = LocalDateTime.parse(dateStr + " 00:00", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                            if (!eventDateTime.toLocalDate().equals(searchDate.toLocalDate())) {
-                                matches = false;
-                            }
-                        } catch (Exception e) {
-                            matches = false;
-                        }
-                    }
-                    if (matches && LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")).isAfter(now)) {
-                        int availableTickets = calculateAvailableTickets(eventName);
-                        shows.add("Event: " + eventName + ", Price: $" + price + ", Date/Time: " + dateTimeStr + ", Location: " + eventLocation + ", Available Tickets: " + availableTickets);
-                    }
+        if (priceStr != null && !priceStr.trim().isEmpty()) {
+            try {
+                String[] range = priceStr.split("-", 2);
+                if (!range[0].trim().isEmpty()) {
+                    query.minPriceCents(Event.toCents(range[0]));
+                }
+                if (range.length > 1 && !range[1].trim().isEmpty()) {
+                    query.maxPriceCents(Event.toCents(range[1]));
                 }
+            } catch (NumberFormatException | ArithmeticException e) {
+                outputArea.setText("Invalid price range. Use e.g. 20-80, 20- or -80.");
+                return;
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading events: " + e.getMessage());
-            return;
         }
-        outputArea.setText("Search Results:\n");
-        if (shows.isEmpty()) {
-            outputArea.append("No matching events found.\n");
-        } else {
-            for (String show : shows) {
-                outputArea.append(show + "\n");
+        tasks.submit("output", () -> {
+            List<String> shows = new ArrayList<>();
+            for (Event event : BookingService.getInstance().search(query)) {
+                shows.add(event.toDisplayString());
             }
-        }
+            return listing("Search Results:", shows, "No matching events found.");
+        }, outputArea::setText);
     }
 
     // Manage profile (update password)
@@ -526,109 +404,16 @@ public class MemberDashboard extends JFrame {
             outputArea.setText("Password must be at least 6 characters long.");
             return;
         }
-        List<String> credentials = new ArrayList<>();
-        boolean found = false;
-        File file = new File("member_credentials.txt");
-        if (!file.exists()) {
-            outputArea.setText("No credentials file found.");
-            return;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2 && parts[0].trim().equals(username)) {
-                    credentials.add(username + "," + newPassword.trim());
-                    found = true;
-                } else {
-                    credentials.add(line);
-                }
+        outputArea.setText("Updating password...");
+        CredentialStore.members().changePassword(username, newPassword.trim()).whenComplete((found, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                outputArea.setText("Error updating credentials: " + ex.getCause().getMessage());
+            } else if (!found) {
+                outputArea.setText("User not found.");
+            } else {
+                outputArea.setText("Password updated successfully.");
             }
-        } catch (IOException e) {
-            outputArea.setText("Error reading credentials: " + e.getMessage());
-            return;
-        }
-        if (!found) {
-            outputArea.setText("User not found.");
-            return;
-        }
-        try (FileWriter writer = new FileWriter(file)) {
-            for (String credential : credentials) {
-                writer.write(credential + "\n");
-            }
-        } catch (IOException e) {
-            outputArea.setText("Error updating credentials: " + e.getMessage());
-            return;
-        }
-        outputArea.setText("Password updated successfully.");
-    }
-
-    // Get event date/time from events.txt
-    private String getEventDateTime(String eventName) {
-        File file = new File("events.txt");
-        if (!file.exists()) {
-            return "Not set";
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3 && parts[0].trim().equals(eventName)) {
-                    return parts[2].trim();
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading events: " + e.getMessage());
-        }
-        return "Not set";
-    }
-
-    // Calculate available tickets for an event
-    private int calculateAvailableTickets(String eventName) {
-        File file = new File("events.txt");
-        int totalTickets = 100; // Default
-        if (file.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(",");
-                    if (parts.length >= 5 && parts[0].trim().equals(eventName)) {
-                        totalTickets = Integer.parseInt(parts[4].trim());
-                        break;
-                    }
-                }
-            } catch (IOException | NumberFormatException e) {
-                System.out.println("Error reading total tickets: " + e.getMessage());
-            }
-        }
-        int bookedTickets = 0;
-        File bookingFile = new File("ticket_bookings.txt");
-        if (bookingFile.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(bookingFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split(",");
-                    if (parts.length >= 3 && parts[1].trim().equals(eventName)) {
-                        bookedTickets += Integer.parseInt(parts[2].trim());
-                    }
-                }
-            } catch (IOException | NumberFormatException e) {
-                System.out.println("Error reading booked tickets: " + e.getMessage());
-            }
-        }
-        int available = totalTickets - bookedTickets;
-        return Math.max(0, available); // Ensure non-negative
-    }
-
-    // Placeholder for AdminPanel class (replace with actual implementation if available)
-    public static class AdminPanel {
-        public static void logTicketBooking(String username, String eventName, int ticketCount, String seats, String bookingId) throws IOException {
-            File file = new File("ticket_bookings.txt");
-            try (FileWriter writer = new FileWriter(file, true)) {
-                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-                writer.write(username + "," + eventName + "," + ticketCount + "," + timestamp + "," + seats + "," + bookingId + "\n");
-            }
-        }
+        }));
     }
 
     public static void main(String[] args) {
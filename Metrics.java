@@ -0,0 +1,219 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Always-on operation metrics: a latency histogram and error count per operation, plus global
+// counters for rows scanned, bytes read, bookings committed and rejections. Recording costs a
+// couple of nanoTime calls and a few atomic increments, far below the file I/O it measures.
+// Everything is published as MBeans under "musicevent:" (jconsole, JMC) and shown in the
+// AdminPanel "Performance" view.
+// Typical use, with the operation looked up once:
+//     private static final Metrics.Operation LOAD_EVENTS = Metrics.operation("loadEvents");
+//     long start = System.nanoTime();
+//     ... LOAD_EVENTS.record(start);
+public class Metrics {
+
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    public static final Counter ROWS_SCANNED = counter("rowsScanned");
+    public static final Counter BYTES_READ = counter("bytesRead");
+    public static final Counter BOOKINGS_COMMITTED = counter("bookingsCommitted");
+    public static final Counter BOOKING_REJECTIONS = counter("bookingRejections");
+    public static final Counter CANCELLATIONS = counter("cancellations");
+
+    // JMX view of one operation; times in milliseconds
+    public interface OperationMBean {
+        long getCount();
+
+        long getErrors();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP99Millis();
+
+        double getP999Millis();
+
+        double getMaxMillis();
+
+        void reset();
+    }
+
+    // JMX view of one counter
+    public interface CounterMBean {
+        long getValue();
+    }
+
+    public static class Operation implements OperationMBean {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Record the time since start (a System.nanoTime() value)
+        public void record(long start) {
+            latency.record(System.nanoTime() - start);
+        }
+
+        // Record a failed call: its latency plus an error
+        public void recordError(long start) {
+            record(start);
+            errors.increment();
+        }
+
+        public LatencyHistogram.Snapshot snapshot() {
+            return latency.snapshot();
+        }
+
+        @Override
+        public long getCount() {
+            return latency.snapshot().getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return latency.snapshot().getMean() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return latency.snapshot().getValueAtQuantile(0.50) / 1e6;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return latency.snapshot().getValueAtQuantile(0.99) / 1e6;
+        }
+
+        @Override
+        public double getP999Millis() {
+            return latency.snapshot().getValueAtQuantile(0.999) / 1e6;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return latency.snapshot().getMax() / 1e6;
+        }
+
+        @Override
+        public void reset() {
+            latency.reset();
+            errors.reset();
+        }
+    }
+
+    public static class Counter implements CounterMBean {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        @Override
+        public long getValue() {
+            return value.sum();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // The operation with this name, created and registered with JMX on first use
+    public static Operation operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, k -> {
+            Operation operation = new Operation(k);
+            register("musicevent:type=Operation,name=" + k, operation, OperationMBean.class);
+            return operation;
+        });
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> {
+            Counter counter = new Counter(k);
+            register("musicevent:type=Counter,name=" + k, counter, CounterMBean.class);
+            return counter;
+        });
+    }
+
+    // Operations by name
+    public static List<Operation> getOperations() {
+        List<Operation> operations = new ArrayList<>(OPERATIONS.values());
+        operations.sort(Comparator.comparing(Operation::getName));
+        return operations;
+    }
+
+    // Counters by name
+    public static List<Counter> getCounters() {
+        List<Counter> counters = new ArrayList<>(COUNTERS.values());
+        counters.sort(Comparator.comparing(Counter::getName));
+        return counters;
+    }
+
+    // Text table of all operations and counters, as shown in the AdminPanel
+    public static String report() {
+        StringBuilder text = new StringBuilder("Performance (latency in ms since start-up)\n\n");
+        text.append(String.format("%-22s %10s %8s %10s %10s %10s %10s %10s%n", "Operation", "Count", "Errors", "Mean", "p50", "p99", "p99.9", "Max"));
+        for (Operation operation : getOperations()) {
+            LatencyHistogram.Snapshot snapshot = operation.snapshot();
+            text.append(String.format("%-22s %10d %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n", operation.getName(), snapshot.getCount(), operation.getErrors(),
+                    snapshot.getMean() / 1e6, millis(snapshot.getValueAtQuantile(0.50)), millis(snapshot.getValueAtQuantile(0.99)),
+                    millis(snapshot.getValueAtQuantile(0.999)), millis(snapshot.getMax())));
+        }
+        text.append("\n");
+        for (Counter counter : getCounters()) {
+            text.append(String.format("%-22s %,d%n", counter.getName(), counter.getValue()));
+        }
+        return text.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static <T> void register(String objectName, T bean, Class<T> type) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(bean, type), name);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.out.println("Error registering " + objectName + " with JMX: " + e.getMessage());
+        }
+    }
+}
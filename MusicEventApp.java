@@ -35,8 +35,8 @@ public class MusicEventApp extends JFrame {
         buttonPanel.add(signupBtn);
         add(buttonPanel);
 
-        // Create default admin if not exists
-        createDefaultAdmin();
+        // Create default admin if not exists (off the EDT)
+        AsyncRepository.run(this::createDefaultAdmin);
 
         setVisible(true);
     }
@@ -0,0 +1,167 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Multi-threaded stress check for TicketAdmission on the path bookings take: admit() with seats,
+// capacities from an EventCatalog, sold counts from a SoldTicketIndex and seats from a
+// SeatInventory, all over a scratch events.txt and booking log in which every event already has
+// one 4-ticket booking.
+// For 1..maxThreads threads, all threads sell the events out one after another, booking 1-4
+// free seats at a time and rolling back about 10% of admissions (as a failed journal write would);
+// halfway through each event an admin raises its capacity through EventCatalog.putEvent. Exits
+// with status 1 if any event sells more or fewer tickets than its raised capacity allows or a
+// seat is sold twice, and prints admissions/s per thread count.
+// Usage: java OversellStress [maxThreads] [events]   (defaults: 64 threads, 100 events)
+public class OversellStress {
+
+    private static final int CAPACITY = 2000;
+    private static final int RAISED_CAPACITY = 2400;
+    private static final int PRESOLD = 4; // seats A0-A3, booked in the scratch log
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        boolean failed = false;
+
+        System.out.printf("%8s %8s %12s %12s %14s%n", "mode", "threads", "sold", "millis", "admits/s");
+        for (String mode : new String[] {"single", "striped"}) {
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                int stripeThreshold = mode.equals("single") ? Integer.MAX_VALUE : 1;
+                failed |= !run(mode, threads, eventCount, stripeThreshold);
+            }
+        }
+        if (failed) {
+            System.out.println("OVERSELL CHECK FAILED");
+            System.exit(1);
+        }
+        System.out.println("No oversell in any run.");
+    }
+
+    private static boolean run(String mode, int threads, int eventCount, int stripeThreshold) throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("oversell").toFile();
+        File eventsFile = new File(dir, "events.txt");
+        File logFile = new File(dir, "ticket_bookings.txt");
+        String[] names = new String[eventCount];
+        try (PrintWriter events = new PrintWriter(eventsFile); PrintWriter log = new PrintWriter(logFile)) {
+            for (int e = 0; e < eventCount; e++) {
+                names[e] = "Hot Event " + e;
+                events.println(eventLine(names[e], CAPACITY));
+                log.println("seed," + names[e] + "," + PRESOLD + ",2024-01-01 00:00:00,A0,A1,A2,A3,S" + e);
+            }
+        }
+        SoldTicketIndex soldIndex = new SoldTicketIndex(logFile, new File(dir, "ticket_bookings.idx"));
+        EventCatalog catalog = new EventCatalog(eventsFile, soldIndex);
+        TicketAdmission admission = TicketAdmission.forCatalog(catalog, soldIndex, new SeatInventory(logFile), stripeThreshold);
+
+        List<Queue<String>> freeSeats = new ArrayList<>();
+        List<Set<String>> soldSeats = new ArrayList<>();
+        for (int e = 0; e < eventCount; e++) {
+            List<String> seats = new ArrayList<>();
+            for (char row = 'A'; row <= 'Z'; row++) {
+                for (int number = row == 'A' ? PRESOLD : 0; number < 100; number++) {
+                    seats.add(row + String.valueOf(number));
+                }
+            }
+            Collections.shuffle(seats);
+            freeSeats.add(new ConcurrentLinkedQueue<>(seats));
+            soldSeats.add(ConcurrentHashMap.newKeySet());
+        }
+        AtomicLongArray sold = new AtomicLongArray(eventCount);
+        AtomicIntegerArray raised = new AtomicIntegerArray(eventCount);
+        AtomicBoolean seatSoldTwice = new AtomicBoolean();
+        AtomicLong admits = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int e = 0; e < eventCount; e++) {
+                    String eventName = names[e];
+                    Queue<String> free = freeSeats.get(e);
+                    while (admission.remaining(eventName) > 0) {
+                        List<String> seats = new ArrayList<>(4);
+                        int wanted = 1 + random.nextInt(4);
+                        String seat;
+                        while (seats.size() < wanted && (seat = free.poll()) != null) {
+                            seats.add(seat);
+                        }
+                        if (seats.isEmpty()) {
+                            continue; // every free seat is held by another thread for the moment
+                        }
+                        try {
+                            TicketAdmission.Admission granted = admission.admit(eventName, seats);
+                            count++;
+                            if (random.nextInt(10) == 0) {
+                                granted.rollback();
+                                free.addAll(seats);
+                            } else {
+                                for (String taken : seats) {
+                                    if (!soldSeats.get(e).add(taken)) {
+                                        seatSoldTwice.set(true);
+                                    }
+                                }
+                                sold.addAndGet(e, seats.size());
+                            }
+                        } catch (BookingException ex) {
+                            free.addAll(seats);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        if (sold.get(e) >= CAPACITY / 2 && raised.compareAndSet(e, 0, 1)) {
+                            catalog.putEvent(eventLine(eventName, RAISED_CAPACITY));
+                        }
+                    }
+                }
+                admits.addAndGet(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long total = 0;
+        boolean ok = !seatSoldTwice.get();
+        for (int e = 0; e < eventCount; e++) {
+            total += sold.get(e);
+            ok &= sold.get(e) == RAISED_CAPACITY - PRESOLD && admission.remaining(names[e]) == 0;
+        }
+        long expected = (long) eventCount * (RAISED_CAPACITY - PRESOLD);
+        System.out.printf("%8s %8d %12d %12d %14.0f%s%n", mode, threads, total, elapsed / 1_000_000,
+                admits.get() * 1e9 / elapsed, ok ? "" : "  <-- expected " + expected + (seatSoldTwice.get() ? ", a seat was sold twice" : ""));
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+        return ok;
+    }
+
+    private static String eventLine(String name, int capacity) {
+        return name + ",50.00,2099-01-01 20:00,Stress Arena," + capacity;
+    }
+}
@@ -0,0 +1,339 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Allocation-free scanner over the comma separated data files (ticket_bookings.txt, events.txt).
+// The file is memory-mapped in windows and walked one line at a time; each field is exposed as
+// a byte range in the current window rather than a String. Fields can be compared against keys
+// encoded once up front (KeyTable) and ints are parsed straight from the bytes, so summing a
+// column or looking up an event allocates nothing per record.
+// Field ranges are trimmed of surrounding spaces. Lines that do not fit in one window are skipped.
+public class RecordScanner implements Closeable {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_FIELDS = 32;
+
+    private final FileChannel channel;
+    private final long end;
+    private final boolean includePartialLine;
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+    private int cursor;
+    private int fieldCount;
+    private int lineFrom;
+    private int lineTo;
+    private int lastField;
+
+    // Scan the whole file; a trailing line without a newline is left out (it may still be being written)
+    public RecordScanner(File file) throws IOException {
+        this(file, 0, false);
+    }
+
+    // Scan from the byte offset, which must be the start of a line
+    public RecordScanner(File file, long start, boolean includePartialLine) throws IOException {
+        this(file, start, Long.MAX_VALUE, includePartialLine);
+    }
+
+    // Scan the byte range [start, end); both ends must be line boundaries (or end past the file)
+    public RecordScanner(File file, long start, long end, boolean includePartialLine) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.end = Math.min(end, channel.size());
+        this.includePartialLine = includePartialLine;
+        this.windowStart = start;
+    }
+
+    // Advance to the next line; false at the end of the file
+    public boolean next() throws IOException {
+        while (true) {
+            if (window == null || cursor >= windowLength) {
+                if (!remap(windowStart + cursor)) {
+                    return false;
+                }
+            }
+            // One pass over the line records the field separators and finds the newline
+            int fields = 0;
+            int fieldFrom = cursor;
+            int i = cursor;
+            while (i < windowLength) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == ',' && fields < MAX_FIELDS - 1) {
+                    fieldStart[fields] = fieldFrom;
+                    fieldEnd[fields] = i;
+                    fields++;
+                    fieldFrom = i + 1;
+                }
+                i++;
+            }
+            if (i == windowLength) {
+                boolean atEnd = windowStart + windowLength >= end;
+                if (atEnd && includePartialLine && cursor < windowLength) {
+                    finishLine(fields, fieldFrom, windowLength);
+                    cursor = windowLength;
+                    return true;
+                }
+                if (atEnd) {
+                    return false; // partial last line
+                }
+                if (cursor == 0) {
+                    skipLine(); // longer than a whole window
+                    continue;
+                }
+                // The line continues past this window: map a new window starting at it
+                remap(windowStart + cursor);
+                continue;
+            }
+            finishLine(fields, fieldFrom, i);
+            cursor = i + 1;
+            return true;
+        }
+    }
+
+    // File offset just past the current line (and its newline); the resume point for a later scan
+    public long position() {
+        return windowStart + cursor;
+    }
+
+    // File offset of the current line
+    public long lineStart() {
+        return windowStart + lineFrom;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // Index of the last field of the line (the booking ID in the booking log)
+    public int lastField() {
+        return lastField;
+    }
+
+    public int fieldLength(int field) {
+        return Math.max(0, end(field) - start(field));
+    }
+
+    // True if the field's bytes equal the pre-encoded key
+    public boolean fieldEquals(int field, byte[] key) {
+        int from = start(field);
+        int length = end(field) - from;
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (window.get(from + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Signed int parsed from the field; Integer.MIN_VALUE if it is not a number
+    public int parseInt(int field) {
+        if (field >= fieldCount) {
+            return Integer.MIN_VALUE;
+        }
+        int from = start(field);
+        int to = end(field);
+        if (from >= to) {
+            return Integer.MIN_VALUE;
+        }
+        boolean negative = window.get(from) == '-';
+        if (negative && ++from == to) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = window.get(i);
+            if (b < '0' || b > '9' || value > (Integer.MAX_VALUE - 9) / 10) {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    // Hash of the field's bytes, consistent with KeyTable
+    public int fieldHash(int field) {
+        int hash = 1;
+        int to = end(field);
+        for (int i = start(field); i < to; i++) {
+            hash = 31 * hash + window.get(i);
+        }
+        return hash;
+    }
+
+    // Decoded field; allocates, so only for values that are kept (e.g. a new event name)
+    public String fieldString(int field) {
+        return decode(start(field), Math.max(start(field), end(field)));
+    }
+
+    // Decoded line; allocates
+    public String lineString() {
+        return decode(lineFrom, lineTo);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private boolean remap(long start) throws IOException {
+        if (start >= end) {
+            window = null;
+            windowStart = start;
+            windowLength = 0;
+            cursor = 0;
+            return false;
+        }
+        windowStart = start;
+        windowLength = (int) Math.min(WINDOW_SIZE, end - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLength);
+        cursor = 0;
+        return true;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < windowLength; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Skip the rest of an over-long line, remapping as needed
+    private void skipLine() throws IOException {
+        while (remap(windowStart + windowLength)) {
+            int newline = indexOfNewline(0);
+            if (newline >= 0) {
+                cursor = newline + 1;
+                return;
+            }
+            cursor = windowLength;
+        }
+    }
+
+    // Close the last field of the line [cursor, to); a trailing \r is dropped
+    private void finishLine(int fields, int fieldFrom, int to) {
+        if (to > fieldFrom && window.get(to - 1) == '\r') {
+            to--;
+        }
+        lineFrom = cursor;
+        lineTo = to;
+        fieldStart[fields] = fieldFrom;
+        fieldEnd[fields] = to;
+        fieldCount = fields + 1;
+        lastField = fields;
+    }
+
+    // Field start with leading spaces skipped
+    private int start(int field) {
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        while (from < to && window.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    // Field end with trailing spaces dropped
+    private int end(int field) {
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        while (to > from && window.get(to - 1) == ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Open-addressing table from UTF-8 keys to values, probed with a scanner field without decoding it
+    public static class KeyTable<V> {
+        private byte[][] keys = new byte[16][];
+        private int[] hashes = new int[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        public void put(String key, V value) {
+            byte[] bytes = key.trim().getBytes(StandardCharsets.UTF_8);
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int hash = hash(bytes);
+            int slot = hash & (keys.length - 1);
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && Arrays.equals(keys[slot], bytes)) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            keys[slot] = bytes;
+            hashes[slot] = hash;
+            values[slot] = value;
+            size++;
+        }
+
+        // Value for the scanner's field, or null
+        @SuppressWarnings("unchecked")
+        public V get(RecordScanner scanner, int field) {
+            if (field >= scanner.fieldCount()) {
+                return null;
+            }
+            int hash = scanner.fieldHash(field);
+            int slot = hash & (keys.length - 1);
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && scanner.fieldEquals(field, keys[slot])) {
+                    return (V) values[slot];
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return null;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private static int hash(byte[] bytes) {
+            int hash = 1;
+            for (byte b : bytes) {
+                hash = 31 * hash + b;
+            }
+            return hash;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            byte[][] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            hashes = new int[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    put(new String(oldKeys[i], StandardCharsets.UTF_8), (V) oldValues[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Allocation check for the RecordScanner read paths. For a synthetic booking log it measures the
+// bytes allocated by the scanning thread (ThreadMXBean) and the time per record for the old
+// readLine + split approach and for each aggregation rebuilt on the scanner. The scanner paths
+// only allocate a fixed amount per scan (the map windows and the result), so bytes per record
+// should be ~0; the run fails if any of them allocates a byte or more per record.
+// Usage: java RecordScannerBenchmark [rows] [eventCount]   (defaults: 2000000 rows, 500 events)
+public class RecordScannerBenchmark {
+
+    private interface Scan {
+        long run() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000L;
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < eventCount; i++) {
+            events.add(new Event("Event " + i, (20 + i % 80) + ".50", "2030-01-01 20:00", "Venue " + (i % 20), 1_000_000, new AtomicInteger()));
+        }
+        File bookings = File.createTempFile("bookings-", ".txt");
+        File sidecar = File.createTempFile("bookings-", ".idx");
+        bookings.deleteOnExit();
+        sidecar.deleteOnExit();
+        generate(bookings, rows, eventCount);
+
+        System.out.printf("%-28s %12s %10s %14s%n", "path", "rows", "ns/row", "bytes/row");
+        measure(threads, "readLine + split (baseline)", rows, false, () -> {
+            long total = 0;
+            try (BufferedReader reader = new BufferedReader(new FileReader(bookings))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    total += Integer.parseInt(line.split(",")[2].trim());
+                }
+            }
+            return total;
+        });
+        boolean zero = measure(threads, "total tickets (scanner)", rows, true, () -> {
+            long total = 0;
+            try (RecordScanner scanner = new RecordScanner(bookings)) {
+                while (scanner.next()) {
+                    int tickets = scanner.parseInt(2);
+                    if (tickets != Integer.MIN_VALUE) {
+                        total += tickets;
+                    }
+                }
+            }
+            return total;
+        });
+        zero &= measure(threads, "monitorSales aggregate", rows, true, () -> RevenueEngine.aggregate(events, bookings).getTotalTickets());
+        zero &= measure(threads, "sold index rebuild", rows, true, () -> {
+            sidecar.delete();
+            SoldTicketIndex index = new SoldTicketIndex(bookings, sidecar);
+            for (Event event : events) {
+                index.counter(event.getName()); // the catalog registers every event up front
+            }
+            index.refresh();
+            return index.getRecordCount();
+        });
+        bookings.delete();
+        sidecar.delete();
+        if (!zero) {
+            System.out.println("A scanner path allocated per record.");
+            System.exit(1);
+        }
+        System.out.println("Scanner paths allocate nothing per record.");
+    }
+
+    // Warm up, then time one run and report its allocation; returns false if a checked path allocates per row
+    private static boolean measure(com.sun.management.ThreadMXBean threads, String name, long rows, boolean check, Scan scan) throws IOException {
+        for (int i = 0; i < 3; i++) {
+            scan.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        scan.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        double perRow = (double) allocated / rows;
+        System.out.printf("%-28s %12d %10.1f %14.3f%n", name, rows, (double) elapsed / rows, perRow);
+        return !check || perRow < 1.0;
+    }
+
+    private static void generate(File file, long rows, int eventCount) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            for (long i = 0; i < rows; i++) {
+                writer.write("user" + random.nextInt(100_000) + ",Event " + random.nextInt(eventCount) + "," + (1 + random.nextInt(4))
+                        + ",2030-01-01 10:00:00,A1,B" + i + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Sales aggregation: per-event ticket totals come from one (parallel) pass over the booking log
+// (BookingAggregator) and are then priced against the events. Money is kept in long cents so
+// totals are exact.
+public class RevenueEngine {
+
+    // Per-event sales figures
+    public static class EventSales {
+        private final String eventName;
+        private final long priceCents;
+        private final int capacity;
+        private long ticketsSold;
+        private long revenueCents;
+
+        EventSales(String eventName, long priceCents, int capacity) {
+            this.eventName = eventName;
+            this.priceCents = priceCents;
+            this.capacity = capacity;
+        }
+
+        void add(long tickets) {
+            ticketsSold += tickets;
+            revenueCents += tickets * priceCents;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+
+        public long getTicketsSold() {
+            return ticketsSold;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        // Percentage of capacity sold, 0 when the event has no capacity
+        public double getSellThroughPercent() {
+            return capacity > 0 ? ticketsSold * 100.0 / capacity : 0.0;
+        }
+    }
+
+    // Result of one aggregation pass
+    public static class SalesReport {
+        private final List<EventSales> events;
+        private final long totalRevenueCents;
+        private final long totalTickets;
+        private final long unmatchedTickets;
+        private final long rows;
+
+        SalesReport(List<EventSales> events, long totalRevenueCents, long totalTickets, long unmatchedTickets, long rows) {
+            this.events = events;
+            this.totalRevenueCents = totalRevenueCents;
+            this.totalTickets = totalTickets;
+            this.unmatchedTickets = unmatchedTickets;
+            this.rows = rows;
+        }
+
+        public List<EventSales> getEvents() {
+            return events;
+        }
+
+        public long getTotalRevenueCents() {
+            return totalRevenueCents;
+        }
+
+        public long getTotalTickets() {
+            return totalTickets;
+        }
+
+        // Tickets booked for events that are no longer in events.txt (no price, so no revenue)
+        public long getUnmatchedTickets() {
+            return unmatchedTickets;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+
+    private RevenueEngine() {
+    }
+
+    public static SalesReport aggregate(Collection<Event> events, File bookingFile) throws IOException {
+        return aggregate(events, BookingAggregator.aggregate(bookingFile));
+    }
+
+    // Price the per-event ticket totals; events not in the catalog count as unmatched
+    public static SalesReport aggregate(Collection<Event> events, BookingAggregator.Totals totals) {
+        Set<String> names = new HashSet<>();
+        List<EventSales> ordered = new ArrayList<>();
+        for (Event event : events) {
+            if (names.add(event.getName())) {
+                EventSales sales = new EventSales(event.getName(), event.getPriceCents(), event.getCapacity());
+                BookingAggregator.EventTotals sold = totals.getEvent(event.getName());
+                if (sold != null) {
+                    sales.add(sold.getTickets());
+                }
+                ordered.add(sales);
+            }
+        }
+        long unmatchedTickets = 0;
+        for (BookingAggregator.EventTotals sold : totals.getEvents()) {
+            if (!names.contains(sold.getEventName())) {
+                unmatchedTickets += sold.getTickets();
+            }
+        }
+        long totalRevenueCents = 0;
+        long totalTickets = unmatchedTickets;
+        for (EventSales sales : ordered) {
+            totalRevenueCents += sales.getRevenueCents();
+            totalTickets += sales.getTicketsSold();
+        }
+        return new SalesReport(ordered, totalRevenueCents, totalTickets, unmatchedTickets, totals.getRows());
+    }
+
+    // Format cents as dollars, e.g. 123456 -> "1234.56"
+    public static String formatCents(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long abs = Math.abs(cents);
+        return sign + (abs / 100) + "." + (abs % 100 < 10 ? "0" : "") + (abs % 100);
+    }
+}
@@ -0,0 +1,50 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Scaling check for RevenueEngine: aggregates synthetic booking logs of growing size and prints
+// the time per row, which should stay flat if the engine is linear in the number of bookings.
+// Usage: java RevenueEngineBenchmark [maxRows] [eventCount]   (defaults: 10000000 rows, 500 events)
+public class RevenueEngineBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long maxRows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < eventCount; i++) {
+            events.add(new Event("Event " + i, (20 + i % 80) + ".50", "2030-01-01 20:00", "Venue " + (i % 20), 1_000_000, new AtomicInteger()));
+        }
+
+        System.out.printf("%12s %12s %14s %10s%n", "rows", "millis", "rows/s", "ns/row");
+        for (long rows = 10_000; rows <= maxRows; rows *= 10) {
+            File bookings = File.createTempFile("bookings-" + rows + "-", ".txt");
+            bookings.deleteOnExit();
+            generate(bookings, rows, eventCount);
+
+            RevenueEngine.aggregate(events, bookings); // warm up
+            long start = System.nanoTime();
+            RevenueEngine.SalesReport report = RevenueEngine.aggregate(events, bookings);
+            long elapsed = System.nanoTime() - start;
+
+            if (report.getRows() != rows) {
+                throw new IllegalStateException("Expected " + rows + " rows but aggregated " + report.getRows());
+            }
+            System.out.printf("%12d %12d %14.0f %10.1f%n", rows, elapsed / 1_000_000, rows * 1e9 / elapsed, (double) elapsed / rows);
+            bookings.delete();
+        }
+    }
+
+    private static void generate(File file, long rows, int eventCount) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            for (long i = 0; i < rows; i++) {
+                writer.write("user" + random.nextInt(100_000) + ",Event " + random.nextInt(eventCount) + "," + (1 + random.nextInt(4))
+                        + ",2030-01-01 10:00:00,A1,B" + i + "\n");
+            }
+        }
+    }
+}
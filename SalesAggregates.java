@@ -0,0 +1,418 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Materialized per-event sales: tickets sold, revenue, bookings and cancellations, kept current
+// from the booking journal instead of recomputed from the log. The store is seeded with one
+// (parallel) BookingAggregator pass over the log as it was when it subscribed to the journal,
+// and from then on every committed booking and tombstone is added as the journal reports it.
+// Figures are published at most every sales.publishMillis (default 500): only events whose
+// counts or catalog details changed since the last publication are priced, and listeners receive
+// just those rows plus the new totals, so reading totals is O(1) and a busy on-sale costs the
+// Admin Panel one small update per interval. Revenue is tickets sold at the current price, as in
+// RevenueEngine; events missing from the catalog count as unmatched tickets without revenue.
+// Only bookings committed through this process's journal are seen live; bookings and cancellations
+// are counted from the log at startup, so they only cover what compaction has left of it.
+public class SalesAggregates {
+
+    private static final long PUBLISH_INTERVAL_MILLIS = Long.getLong("sales.publishMillis", 500);
+    private static final ScheduledExecutorService PUBLISHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sales-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final SalesAggregates INSTANCE = new SalesAggregates(new File("ticket_bookings.txt"), BookingJournal.getInstance(), EventCatalog.getInstance());
+
+    private final File logFile;
+    private final BookingJournal journal;
+    private final EventCatalog catalog;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<Listener> needFullUpdate = Collections.synchronizedSet(new HashSet<>());
+
+    // Guarded by this
+    private final Map<String, Counts> counts = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private List<String> pending = new ArrayList<>(); // records committed while the log is being scanned
+    private long totalTickets;
+    private long totalBookings;
+    private long totalCancellations;
+
+    // Written by the publisher thread only
+    private final Map<String, EventSales> published = new ConcurrentHashMap<>();
+    private final CountDownLatch firstPublication = new CountDownLatch(1);
+    private long publishedCatalogVersion = -1;
+    private long revenueCents;
+    private long unmatchedTickets;
+
+    private volatile Totals totals = new Totals(0, 0, 0, 0, 0, false);
+
+    // Receives updates on the publisher thread, oldest first
+    public interface Listener {
+        void salesChanged(Update update);
+    }
+
+    // Running counts for one event name as it appears in the log
+    private static class Counts {
+        long tickets;
+        long bookings;
+        long cancellations;
+
+        void add(long ticketCount, long bookingCount, long cancellationCount) {
+            tickets += ticketCount;
+            bookings += bookingCount;
+            cancellations += cancellationCount;
+        }
+    }
+
+    // Published figures for one event
+    public static class EventSales {
+        private final String eventName;
+        private final boolean listed;
+        private final long priceCents;
+        private final int capacity;
+        private final long ticketsSold;
+        private final long bookings;
+        private final long cancellations;
+
+        EventSales(String eventName, Event event, Counts counts) {
+            this.eventName = eventName;
+            this.listed = event != null;
+            this.priceCents = event != null ? event.getPriceCents() : 0;
+            this.capacity = event != null ? event.getCapacity() : 0;
+            this.ticketsSold = counts != null ? counts.tickets : 0;
+            this.bookings = counts != null ? counts.bookings : 0;
+            this.cancellations = counts != null ? counts.cancellations : 0;
+        }
+
+        boolean sameAs(EventSales other) {
+            return other != null && listed == other.listed && priceCents == other.priceCents && capacity == other.capacity
+                    && ticketsSold == other.ticketsSold && bookings == other.bookings && cancellations == other.cancellations;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+
+        // False for events booked in the log but no longer in events.txt
+        public boolean isListed() {
+            return listed;
+        }
+
+        public long getPriceCents() {
+            return priceCents;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        // Tickets currently sold: booked minus cancelled
+        public long getTicketsSold() {
+            return ticketsSold;
+        }
+
+        public long getRevenueCents() {
+            return ticketsSold * priceCents;
+        }
+
+        // Booking records, including ones cancelled since
+        public long getBookings() {
+            return bookings;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        public long getActiveBookings() {
+            return bookings - cancellations;
+        }
+
+        // Percentage of capacity sold, 0 when the event has no capacity
+        public double getSellThroughPercent() {
+            return capacity > 0 ? ticketsSold * 100.0 / capacity : 0.0;
+        }
+    }
+
+    public static class Totals {
+        private final long ticketsSold;
+        private final long revenueCents;
+        private final long bookings;
+        private final long cancellations;
+        private final long unmatchedTickets;
+        private final boolean loaded;
+
+        Totals(long ticketsSold, long revenueCents, long bookings, long cancellations, long unmatchedTickets, boolean loaded) {
+            this.ticketsSold = ticketsSold;
+            this.revenueCents = revenueCents;
+            this.bookings = bookings;
+            this.cancellations = cancellations;
+            this.unmatchedTickets = unmatchedTickets;
+            this.loaded = loaded;
+        }
+
+        public long getTicketsSold() {
+            return ticketsSold;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public long getBookings() {
+            return bookings;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+
+        // Tickets booked for events that are no longer in events.txt (no price, so no revenue)
+        public long getUnmatchedTickets() {
+            return unmatchedTickets;
+        }
+
+        // False until the initial scan of the log has finished
+        public boolean isLoaded() {
+            return loaded;
+        }
+    }
+
+    // One publication: the events whose figures changed (every event if full) and the new totals
+    public static class Update {
+        private final boolean full;
+        private final List<EventSales> changed;
+        private final List<String> removed;
+        private final Totals totals;
+
+        Update(boolean full, List<EventSales> changed, List<String> removed, Totals totals) {
+            this.full = full;
+            this.changed = changed;
+            this.removed = removed;
+            this.totals = totals;
+        }
+
+        // A full update replaces everything the listener has
+        public boolean isFull() {
+            return full;
+        }
+
+        public List<EventSales> getChanged() {
+            return changed;
+        }
+
+        // Events that no longer have a catalog entry or any bookings
+        public List<String> getRemoved() {
+            return removed;
+        }
+
+        public Totals getTotals() {
+            return totals;
+        }
+    }
+
+    SalesAggregates(File logFile, BookingJournal journal, EventCatalog catalog) {
+        this.logFile = logFile;
+        this.journal = journal;
+        this.catalog = catalog;
+        PUBLISHER.execute(this::load);
+    }
+
+    public static SalesAggregates getInstance() {
+        return INSTANCE;
+    }
+
+    // Totals as of the last publication
+    public Totals getTotals() {
+        return totals;
+    }
+
+    // Totals as of the last publication, waiting for the initial scan of the log if it is still running
+    public Totals awaitTotals() throws InterruptedException {
+        firstPublication.await();
+        return totals;
+    }
+
+    // Figures for one event as of the last publication, or null if it has neither bookings nor a catalog entry
+    public EventSales getEventSales(String eventName) {
+        return published.get(eventName);
+    }
+
+    // Figures for every event as of the last publication, by name
+    public List<EventSales> getEventSales() {
+        List<EventSales> events = new ArrayList<>(published.values());
+        events.sort(Comparator.comparing(EventSales::getEventName));
+        return events;
+    }
+
+    // Start sending updates; the first one is full
+    public void addListener(Listener listener) {
+        needFullUpdate.add(listener);
+        listeners.add(listener);
+        PUBLISHER.execute(this::publish);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+        needFullUpdate.remove(listener);
+    }
+
+    // Seed the counts from the log up to where the journal listener takes over. If the log is
+    // rewritten during the scan the offset no longer means anything, so start again.
+    private void load() {
+        BookingJournal.CommitListener listener = this::committed;
+        while (true) {
+            long rewrites = journal.getRewrites();
+            long end = journal.addCommitListener(listener);
+            BookingAggregator.Totals scanned;
+            try {
+                scanned = BookingAggregator.aggregate(logFile, end, true);
+            } catch (IOException e) {
+                System.out.println("Error reading ticket bookings for sales totals: " + e.getMessage());
+                scanned = null;
+            }
+            synchronized (this) {
+                if (scanned != null && journal.getRewrites() != rewrites) {
+                    journal.removeCommitListener(listener);
+                    pending = new ArrayList<>();
+                    continue;
+                }
+                if (scanned != null) {
+                    for (BookingAggregator.EventTotals event : scanned.getEvents()) {
+                        add(event.getEventName(), event.getTickets(), event.getBookings(), event.getCancellations());
+                    }
+                }
+                List<String> committed = pending;
+                pending = null;
+                apply(committed);
+            }
+            break;
+        }
+        PUBLISHER.scheduleWithFixedDelay(this::publish, 0, PUBLISH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Journal listener: count the records just made durable
+    private synchronized void committed(List<String> records) {
+        if (pending != null) {
+            pending.addAll(records);
+        } else {
+            apply(records);
+        }
+    }
+
+    private void apply(List<String> records) {
+        for (String line : records) {
+            BookingRecord record = BookingRecord.parse(line);
+            if (record == null) {
+                continue;
+            }
+            int tickets = record.getTicketCount();
+            add(record.getEventName(), tickets, tickets < 0 ? 0 : 1, tickets < 0 ? 1 : 0);
+        }
+    }
+
+    private void add(String eventName, long tickets, long bookings, long cancellations) {
+        counts.computeIfAbsent(eventName, k -> new Counts()).add(tickets, bookings, cancellations);
+        dirty.add(eventName);
+        totalTickets += tickets;
+        totalBookings += bookings;
+        totalCancellations += cancellations;
+    }
+
+    // Price the events that changed since the last run and send them to the listeners. A catalog
+    // change (new prices, events added or deleted) re-prices every event once; the catalog is not
+    // polled here, changes show up once an edit or any other caller has refreshed it.
+    private void publish() {
+        synchronized (this) {
+            if (pending != null) {
+                return; // still loading; load() schedules the first run
+            }
+        }
+        // Read the catalog (which may reload events.txt) before locking out the journal listener
+        List<Event> catalogEvents = catalog.getVersion() != publishedCatalogVersion ? catalog.getEvents() : null;
+        long catalogVersion = catalog.getVersion();
+        List<EventSales> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        long tickets;
+        long bookings;
+        long cancellations;
+        synchronized (this) {
+            Set<String> names;
+            if (catalogEvents != null) {
+                names = new HashSet<>(counts.keySet());
+                names.addAll(published.keySet());
+                for (Event event : catalogEvents) {
+                    names.add(event.getName());
+                }
+                publishedCatalogVersion = catalogVersion;
+            } else {
+                names = dirty;
+            }
+            for (String name : names) {
+                Event event = catalog.getLoadedEvent(name);
+                Counts eventCounts = counts.get(name);
+                EventSales previous = published.get(name);
+                if (event == null && eventCounts == null) {
+                    if (previous != null) {
+                        retire(previous);
+                        published.remove(name);
+                        removed.add(name);
+                    }
+                    continue;
+                }
+                EventSales current = new EventSales(name, event, eventCounts);
+                if (current.sameAs(previous)) {
+                    continue;
+                }
+                if (previous != null) {
+                    retire(previous);
+                }
+                revenueCents += current.getRevenueCents();
+                unmatchedTickets += current.isListed() ? 0 : current.getTicketsSold();
+                published.put(name, current);
+                changed.add(current);
+            }
+            dirty.clear();
+            tickets = totalTickets;
+            bookings = totalBookings;
+            cancellations = totalCancellations;
+        }
+        Totals previousTotals = totals;
+        totals = new Totals(tickets, revenueCents, bookings, cancellations, unmatchedTickets, true);
+        firstPublication.countDown();
+        boolean totalsChanged = !previousTotals.loaded || previousTotals.ticketsSold != tickets || previousTotals.revenueCents != revenueCents
+                || previousTotals.bookings != bookings || previousTotals.cancellations != cancellations;
+        Update delta = changed.isEmpty() && removed.isEmpty() && !totalsChanged ? null : new Update(false, changed, removed, totals);
+        for (Listener listener : listeners) {
+            // A failing listener must not stop the scheduled publication for the others
+            try {
+                if (needFullUpdate.remove(listener)) {
+                    listener.salesChanged(new Update(true, getEventSales(), new ArrayList<>(), totals));
+                } else if (delta != null) {
+                    listener.salesChanged(delta);
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Error publishing sales totals: " + e);
+            }
+        }
+    }
+
+    // Take a published event's figures out of the running totals
+    private void retire(EventSales sales) {
+        revenueCents -= sales.getRevenueCents();
+        unmatchedTickets -= sales.isListed() ? 0 : sales.getTicketsSold();
+    }
+}
@@ -0,0 +1,155 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Live sales view for AdminPanel: one row per event, kept current by SalesAggregates updates.
+// Each update only touches the rows of events that changed, so the table can stay open through
+// an on-sale; clicking a header sorts by that column. close() stops the updates.
+public class SalesPanel extends JPanel implements SalesAggregates.Listener {
+
+    private static final String[] COLUMNS = {"Event", "Price", "Tickets Sold", "Revenue", "Active Bookings", "Cancellations", "Sell-through %"};
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final SalesModel model = new SalesModel();
+    private final JLabel totalsLabel = new JLabel("Loading sales...");
+
+    public SalesPanel() {
+        super(new BorderLayout());
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        DefaultTableCellRenderer money = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "-" : "$" + RevenueEngine.formatCents((Long) value));
+            }
+        };
+        money.setHorizontalAlignment(SwingConstants.RIGHT);
+        table.getColumnModel().getColumn(1).setCellRenderer(money);
+        table.getColumnModel().getColumn(3).setCellRenderer(money);
+        totalsLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        add(totalsLabel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        SalesAggregates.getInstance().addListener(this);
+    }
+
+    public void close() {
+        SalesAggregates.getInstance().removeListener(this);
+    }
+
+    @Override
+    public void salesChanged(SalesAggregates.Update update) {
+        SwingUtilities.invokeLater(() -> {
+            model.apply(update);
+            SalesAggregates.Totals totals = update.getTotals();
+            String text = "Total Sales Revenue: $" + RevenueEngine.formatCents(totals.getRevenueCents())
+                    + "    Total Tickets Sold: " + totals.getTicketsSold()
+                    + "    Bookings: " + (totals.getBookings() - totals.getCancellations())
+                    + "    Cancellations: " + totals.getCancellations();
+            if (totals.getUnmatchedTickets() > 0) {
+                text += "    Tickets for events no longer listed: " + totals.getUnmatchedTickets();
+            }
+            totalsLabel.setText(text + "    (updated " + LocalTime.now().format(TIME) + ")");
+        });
+    }
+
+    private static class SalesModel extends AbstractTableModel {
+        private final List<SalesAggregates.EventSales> rows = new ArrayList<>();
+        private final Map<String, Integer> rowIndex = new HashMap<>();
+
+        void apply(SalesAggregates.Update update) {
+            if (update.isFull()) {
+                rows.clear();
+                rows.addAll(update.getChanged());
+                reindex();
+                fireTableDataChanged();
+                return;
+            }
+            if (!update.getRemoved().isEmpty()) {
+                for (String name : update.getRemoved()) {
+                    Integer row = rowIndex.remove(name);
+                    if (row != null) {
+                        rows.set(row, null);
+                    }
+                }
+                rows.removeIf(sales -> sales == null);
+                reindex();
+                fireTableDataChanged();
+            }
+            for (SalesAggregates.EventSales sales : update.getChanged()) {
+                Integer row = rowIndex.get(sales.getEventName());
+                if (row != null) {
+                    rows.set(row, sales);
+                    fireTableRowsUpdated(row, row);
+                } else {
+                    rows.add(sales);
+                    rowIndex.put(sales.getEventName(), rows.size() - 1);
+                    fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+                }
+            }
+        }
+
+        private void reindex() {
+            rowIndex.clear();
+            for (int i = 0; i < rows.size(); i++) {
+                rowIndex.put(rows.get(i).getEventName(), i);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 0:
+                    return String.class;
+                case 6:
+                    return Double.class;
+                default:
+                    return Long.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            SalesAggregates.EventSales sales = rows.get(row);
+            switch (column) {
+                case 0:
+                    return sales.isListed() ? sales.getEventName() : sales.getEventName() + " (not listed)";
+                case 1:
+                    return sales.isListed() ? sales.getPriceCents() : null;
+                case 2:
+                    return sales.getTicketsSold();
+                case 3:
+                    return sales.getRevenueCents();
+                case 4:
+                    return sales.getActiveBookings();
+                case 5:
+                    return sales.getCancellations();
+                default:
+                    return Math.round(sales.getSellThroughPercent() * 10) / 10.0;
+            }
+        }
+    }
+}
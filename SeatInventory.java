@@ -0,0 +1,196 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Seat inventory per event.
+// Each event keeps a bitset of taken seats (row letter A-Z x seat number 0-99) in an AtomicLongArray.
+// Reservations are all-or-nothing: the seat bits are claimed word by word with CAS, and anything
+// already claimed is rolled back if a later seat turns out to be taken. Capacity is enforced
+// separately by TicketAdmission.
+// The inventory is built from the booking log on first use and kept current by reserve/release.
+// If the log cannot be read, reservations fail with the IOException and the next call tries again;
+// an inventory that had not seen the log would hand out seats that are already sold.
+public class SeatInventory {
+
+    private static final int SEATS_PER_ROW = 100;
+    private static final int SEAT_COUNT = 26 * SEATS_PER_ROW;
+    private static final SeatInventory INSTANCE = new SeatInventory(new File("ticket_bookings.txt"));
+
+    private final File logFile;
+    private final Map<String, AtomicLongArray> events = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    SeatInventory(File logFile) {
+        this.logFile = logFile;
+    }
+
+    public static SeatInventory getInstance() {
+        return INSTANCE;
+    }
+
+    // Seat labels such as "A1" or "C12" to bit positions; null if any label is invalid
+    public static int[] parseSeats(List<String> seats) {
+        int[] positions = new int[seats.size()];
+        for (int i = 0; i < positions.length; i++) {
+            String seat = seats.get(i).trim();
+            // [A-Z][0-9]{1,2}, checked by hand as this runs for every seat of every booking
+            int length = seat.length();
+            if (length < 2 || length > 3 || seat.charAt(0) < 'A' || seat.charAt(0) > 'Z') {
+                return null;
+            }
+            int number = 0;
+            for (int j = 1; j < length; j++) {
+                char c = seat.charAt(j);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                number = number * 10 + (c - '0');
+            }
+            positions[i] = (seat.charAt(0) - 'A') * SEATS_PER_ROW + number;
+        }
+        return positions;
+    }
+
+    // Atomically claim the seats for an event
+    public void reserve(String eventName, List<String> seats) throws BookingException, IOException {
+        int[] positions = parseSeats(seats);
+        if (positions == null || positions.length == 0) {
+            throw new BookingException("Invalid seats format. Use comma-separated seats, e.g., A1,A2,A3.");
+        }
+        Map<Integer, Long> masks = new TreeMap<>();
+        for (int position : positions) {
+            long bit = 1L << (position & 63);
+            long mask = masks.getOrDefault(position >>> 6, 0L);
+            if ((mask & bit) != 0) {
+                throw new BookingException("Seat " + seatLabel(position) + " is listed more than once.");
+            }
+            masks.put(position >>> 6, mask | bit);
+        }
+        AtomicLongArray taken = seatsFor(eventName);
+        List<Map.Entry<Integer, Long>> claimed = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : masks.entrySet()) {
+            long conflict = claimWord(taken, entry.getKey(), entry.getValue());
+            if (conflict != 0) {
+                for (Map.Entry<Integer, Long> done : claimed) {
+                    clearWord(taken, done.getKey(), done.getValue());
+                }
+                int position = entry.getKey() * 64 + Long.numberOfTrailingZeros(conflict);
+                throw new BookingException("Seat " + seatLabel(position) + " is already booked for " + eventName + ".");
+            }
+            claimed.add(entry);
+        }
+    }
+
+    // Give seats back, e.g. after a cancellation or a failed journal write; O(seats).
+    // Nothing to do before the log has been loaded, as loading it replays the cancellation.
+    public void release(String eventName, List<String> seats) {
+        int[] positions = parseSeats(seats);
+        if (positions == null || !isLoaded()) {
+            return;
+        }
+        AtomicLongArray taken = events.computeIfAbsent(eventName, k -> newBitset());
+        for (int position : positions) {
+            clearWord(taken, position >>> 6, 1L << (position & 63));
+        }
+    }
+
+    public boolean isTaken(String eventName, String seat) throws IOException {
+        List<String> single = new ArrayList<>();
+        single.add(seat);
+        int[] positions = parseSeats(single);
+        if (positions == null) {
+            return false;
+        }
+        return (seatsFor(eventName).get(positions[0] >>> 6) & (1L << (positions[0] & 63))) != 0;
+    }
+
+    // Set all bits in mask if none are set; returns the conflicting bits, or 0 on success
+    private static long claimWord(AtomicLongArray words, int index, long mask) {
+        while (true) {
+            long current = words.get(index);
+            if ((current & mask) != 0) {
+                return current & mask;
+            }
+            if (words.compareAndSet(index, current, current | mask)) {
+                return 0;
+            }
+        }
+    }
+
+    private static void clearWord(AtomicLongArray words, int index, long mask) {
+        while (true) {
+            long current = words.get(index);
+            if (words.compareAndSet(index, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    private static String seatLabel(int position) {
+        return (char) ('A' + position / SEATS_PER_ROW) + String.valueOf(position % SEATS_PER_ROW);
+    }
+
+    private AtomicLongArray seatsFor(String eventName) throws IOException {
+        if (!loaded) {
+            load();
+        }
+        return events.computeIfAbsent(eventName, k -> newBitset());
+    }
+
+    // Waits for a load in progress, so a release is never lost between the log being read and the result taken
+    private boolean isLoaded() {
+        if (loaded) {
+            return true;
+        }
+        synchronized (this) {
+            return loaded;
+        }
+    }
+
+    private static AtomicLongArray newBitset() {
+        return new AtomicLongArray((SEAT_COUNT + 63) / 64);
+    }
+
+    // Replay the booking log once to learn which seats are already taken; tombstones free their seats.
+    // The inventory only takes the result once the whole log has been read.
+    private synchronized void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        if (logFile.exists()) {
+            Map<String, AtomicLongArray> replayed = new HashMap<>();
+            FlightEvents.FileScan scan = new FlightEvents.FileScan();
+            scan.begin();
+            try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+                long lines = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    BookingRecord record = BookingRecord.parse(line);
+                    if (record == null) {
+                        continue;
+                    }
+                    AtomicLongArray taken = replayed.computeIfAbsent(record.getEventName(), k -> newBitset());
+                    int[] positions = parseSeats(record.getSeatList());
+                    if (positions != null) {
+                        for (int position : positions) {
+                            long bit = 1L << (position & 63);
+                            long word = taken.get(position >>> 6);
+                            taken.set(position >>> 6, record.isCancellation() ? word & ~bit : word | bit);
+                        }
+                    }
+                }
+                scan.finish(logFile, logFile.length(), lines);
+            } catch (IOException e) {
+                throw new IOException("Error reading seat bookings: " + e.getMessage(), e);
+            }
+            events.putAll(replayed);
+        }
+        loaded = true;
+    }
+}
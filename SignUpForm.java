@@ -1,7 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.*;
 
 public class SignUpForm extends JFrame {
 
@@ -55,19 +54,20 @@ public class SignUpForm extends JFrame {
                 return;
             }
 
-            if (isUsernameTaken(username)) {
-                JOptionPane.showMessageDialog(this, "Username already exists.");
-                return;
-            }
-
-            try (FileWriter writer = new FileWriter("member_credentials.txt", true)) {
-                writer.write(username + "," + password + "\n");
-                JOptionPane.showMessageDialog(this, "Sign-up successful! You can now log in.");
-                new MusicEventApp();
-                dispose();
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "Error saving credentials: " + ex.getMessage());
-            }
+            // Uniqueness check and insert happen atomically inside the store
+            signUpBtn.setEnabled(false);
+            CredentialStore.members().register(username, password).whenComplete((registered, ex) -> SwingUtilities.invokeLater(() -> {
+                signUpBtn.setEnabled(true);
+                if (ex != null) {
+                    JOptionPane.showMessageDialog(this, "Error saving credentials: " + ex.getCause().getMessage());
+                } else if (!registered) {
+                    JOptionPane.showMessageDialog(this, "Username already exists.");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Sign-up successful! You can now log in.");
+                    new MusicEventApp();
+                    dispose();
+                }
+            }));
         });
 
         backBtn.addActionListener(e -> {
@@ -78,22 +78,4 @@ public class SignUpForm extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setVisible(true);
     }
-
-    private boolean isUsernameTaken(String username) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("member_credentials.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 0 && parts[0].equals(username)) {
-                    return true;
-                }
-            }
-        } catch (FileNotFoundException e) {
-            // File doesn't exist yet, so username is not taken
-            return false;
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Error checking credentials: " + e.getMessage());
-        }
-        return false;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-event sold ticket counts that tail ticket_bookings.txt.
+// Only bytes appended since the last query are scanned (memory-mapped, see RecordScanner); the log is re-read from the start
+// only when it shrinks or the bytes before the saved offset no longer match (a rewrite).
+// The counts and offset survive restarts in a small sidecar file. It is written after the first
+// scan and after a rewrite, otherwise at most every soldIndex.saveMillis (default 30000) and at
+// shutdown; a sidecar that is behind the log only means a longer tail on the next start.
+public class SoldTicketIndex {
+
+    private static final int MAGIC = 0x53544932; // "STI2"
+    private static final long SAVE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("soldIndex.saveMillis", 30_000));
+    private static final Metrics.Operation TAIL = Metrics.operation("soldIndexTail");
+    private static final SoldTicketIndex INSTANCE = new SoldTicketIndex(new File("ticket_bookings.txt"), new File("ticket_bookings.idx"));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::save, "sold-index-save"));
+    }
+
+    private final File logFile;
+    private final File indexFile;
+    private final Map<String, AtomicInteger> sold = new HashMap<>();
+    private final RecordScanner.KeyTable<AtomicInteger> counterTable = new RecordScanner.KeyTable<>();
+    private long offset;
+    private long checksum;
+    private long records;
+    private long tombstones;
+    private long lastModified = -1;
+    private boolean loaded;
+    private boolean dirty;
+    private boolean everSaved;
+    private long savedAt;
+
+    SoldTicketIndex(File logFile, File indexFile) {
+        this.logFile = logFile;
+        this.indexFile = indexFile;
+    }
+
+    public static SoldTicketIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // Live counter for an event; the same instance is kept across refreshes and rebuilds
+    public synchronized AtomicInteger counter(String eventName) {
+        return sold.computeIfAbsent(eventName, k -> {
+            AtomicInteger count = new AtomicInteger();
+            counterTable.put(k, count);
+            return count;
+        });
+    }
+
+    public synchronized int getSold(String eventName) {
+        refresh();
+        AtomicInteger count = sold.get(eventName);
+        return count != null ? count.get() : 0;
+    }
+
+    // Booking and tombstone lines seen so far, used by the compactor to decide when to run
+    public synchronized long getRecordCount() {
+        refresh();
+        return records;
+    }
+
+    public synchronized long getTombstoneCount() {
+        refresh();
+        return tombstones;
+    }
+
+    // Bring the index up to date with the log, parsing only the appended bytes
+    public synchronized void refresh() {
+        if (!loaded) {
+            loaded = true;
+            loadSidecar();
+        }
+        long size = logFile.length();
+        long modified = logFile.lastModified();
+        if (size == offset && modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        boolean rebuilt = false;
+        if (size < offset || (offset > 0 && checksum != checksumBefore(offset))) {
+            rebuild();
+            rebuilt = true;
+            dirty = true;
+        }
+        if (logFile.exists() && logFile.length() > offset) {
+            tail();
+            dirty = true;
+        }
+        if (dirty && (rebuilt || !everSaved || System.nanoTime() - savedAt >= SAVE_INTERVAL_NANOS)) {
+            save();
+        }
+    }
+
+    // Write the sidecar if the counts changed since it was last written
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        everSaved = true;
+        savedAt = System.nanoTime();
+        saveSidecar();
+    }
+
+    private void rebuild() {
+        for (AtomicInteger count : sold.values()) {
+            count.set(0);
+        }
+        offset = 0;
+        checksum = 0;
+        records = 0;
+        tombstones = 0;
+    }
+
+    // Scan every complete line after the saved offset; a trailing partial line is left for next time.
+    // Event names are matched as bytes against the known counters, so known events allocate nothing.
+    private void tail() {
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (RecordScanner scanner = new RecordScanner(logFile, offset, false)) {
+            long rows = 0;
+            while (scanner.next()) {
+                rows++;
+                if (scanner.fieldCount() < 3) {
+                    continue;
+                }
+                int tickets = scanner.parseInt(2);
+                if (tickets == Integer.MIN_VALUE) {
+                    System.out.println("Error reading booked tickets: bad ticket count in " + scanner.lineString());
+                    continue;
+                }
+                AtomicInteger count = counterTable.get(scanner, 1);
+                if (count == null) {
+                    count = counter(scanner.fieldString(1));
+                }
+                count.addAndGet(tickets);
+                records++;
+                if (tickets < 0) {
+                    tombstones++;
+                }
+            }
+            Metrics.ROWS_SCANNED.add(rows);
+            Metrics.BYTES_READ.add(scanner.position() - offset);
+            scan.finish(logFile, scanner.position() - offset, rows);
+            offset = scanner.position();
+            checksum = checksumBefore(offset);
+            TAIL.record(start);
+        } catch (IOException e) {
+            TAIL.recordError(start);
+            System.out.println("Error reading booked tickets: " + e.getMessage());
+        }
+    }
+
+    private long checksumBefore(long end) {
+        return BookingLog.checksumBefore(logFile, end);
+    }
+
+    private void loadSidecar() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC) {
+                return;
+            }
+            long savedOffset = in.readLong();
+            long savedChecksum = in.readLong();
+            long savedRecords = in.readLong();
+            long savedTombstones = in.readLong();
+            int entries = in.readInt();
+            Map<String, Integer> savedCounts = new HashMap<>();
+            for (int i = 0; i < entries; i++) {
+                savedCounts.put(in.readUTF(), in.readInt());
+            }
+            for (Map.Entry<String, Integer> entry : savedCounts.entrySet()) {
+                counter(entry.getKey()).set(entry.getValue());
+            }
+            offset = savedOffset;
+            checksum = savedChecksum;
+            records = savedRecords;
+            tombstones = savedTombstones;
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable sold ticket index: " + e.getMessage());
+            rebuild();
+        }
+    }
+
+    // Write to a temp file and rename so a crash never leaves a half-written sidecar
+    private void saveSidecar() {
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(offset);
+            out.writeLong(checksum);
+            out.writeLong(records);
+            out.writeLong(tombstones);
+            out.writeInt(sold.size());
+            for (Map.Entry<String, AtomicInteger> entry : sold.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().get());
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving sold ticket index: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error saving sold ticket index: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,277 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.ToIntFunction;
+
+// Admission control for bookings: every event has a remaining-capacity counter that is
+// decremented and checked with CAS before anything reaches the booking journal, so concurrent
+// bookers can never take more tickets than the event has. Large events (see
+// admission.stripeThreshold) split the counter into per-CPU stripes to avoid CAS contention;
+// a stripe that runs dry borrows from the others.
+// Capacity and sold count are looked up once, when an event's counter is created; after that the
+// counter is the source of truth and capacity edits are pushed in through capacityChanged (the
+// catalog does this for putEvent and reloads of events.txt), so admitting touches no locks or files.
+public class TicketAdmission {
+
+    private static final int STRIPE_THRESHOLD = Integer.getInteger("admission.stripeThreshold", 10_000);
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+    private static final TicketAdmission INSTANCE = forCatalog(EventCatalog.getInstance(), SoldTicketIndex.getInstance(),
+            SeatInventory.getInstance(), STRIPE_THRESHOLD);
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ToIntFunction<String> capacityLookup;
+    private final ToIntFunction<String> soldLookup;
+    private final SeatInventory seatInventory;
+    private final int stripeThreshold;
+
+    // A granted admission; roll it back if the booking cannot be committed
+    public static class Admission {
+        private final TicketAdmission admission;
+        private final String eventName;
+        private final List<String> seats;
+        private boolean rolledBack;
+
+        Admission(TicketAdmission admission, String eventName, List<String> seats) {
+            this.admission = admission;
+            this.eventName = eventName;
+            this.seats = seats;
+        }
+
+        public synchronized void rollback() {
+            if (!rolledBack) {
+                rolledBack = true;
+                admission.releaseBooking(eventName, seats, seats.size());
+            }
+        }
+    }
+
+    TicketAdmission(ToIntFunction<String> capacityLookup, ToIntFunction<String> soldLookup, SeatInventory seatInventory, int stripeThreshold) {
+        this.capacityLookup = capacityLookup;
+        this.soldLookup = soldLookup;
+        this.seatInventory = seatInventory;
+        this.stripeThreshold = stripeThreshold;
+    }
+
+    // Admission for the catalog's events that follows the catalog's capacity edits
+    static TicketAdmission forCatalog(EventCatalog catalog, SoldTicketIndex soldIndex, SeatInventory seatInventory, int stripeThreshold) {
+        TicketAdmission admission = new TicketAdmission(catalog::getCapacity, soldIndex::getSold, seatInventory, stripeThreshold);
+        catalog.addCapacityListener(admission::capacityChanged);
+        return admission;
+    }
+
+    public static TicketAdmission getInstance() {
+        return INSTANCE;
+    }
+
+    // Claim one ticket per seat plus the seats themselves, all or nothing
+    public Admission admit(String eventName, List<String> seats) throws BookingException, IOException {
+        if (!tryAcquire(eventName, seats.size())) {
+            throw new BookingException("Not enough tickets left for " + eventName + ".");
+        }
+        try {
+            seatInventory.reserve(eventName, seats);
+        } catch (BookingException | IOException e) {
+            release(eventName, seats.size());
+            throw e;
+        }
+        return new Admission(this, eventName, seats);
+    }
+
+    // Give back the tickets and seats of a booking that was cancelled or never committed
+    public void releaseBooking(String eventName, List<String> seats, int tickets) {
+        seatInventory.release(eventName, seats);
+        release(eventName, tickets);
+    }
+
+    public boolean tryAcquire(String eventName, int tickets) {
+        return tickets > 0 && counterFor(eventName).tryAcquire(tickets);
+    }
+
+    public void release(String eventName, int tickets) {
+        if (tickets > 0) {
+            counterFor(eventName).release(tickets);
+        }
+    }
+
+    // Tickets still admissible, including ones held by bookings that are in flight
+    public int remaining(String eventName) {
+        return counterFor(eventName).remaining();
+    }
+
+    // An admin changed the event's capacity; tickets sold so far stay sold
+    public void capacityChanged(String eventName, int capacity) {
+        Counter counter = counters.get(eventName);
+        if (counter != null) {
+            counter.syncCapacity(capacity);
+        }
+    }
+
+    private Counter counterFor(String eventName) {
+        Counter counter = counters.get(eventName);
+        if (counter == null) {
+            int capacity = capacityLookup.applyAsInt(eventName);
+            int remaining = capacity - soldLookup.applyAsInt(eventName);
+            Counter created = capacity >= stripeThreshold ? new StripedCounter(capacity, remaining) : new SingleCounter(capacity, remaining);
+            counter = counters.putIfAbsent(eventName, created);
+            if (counter == null) {
+                counter = created;
+                // An edit pushed between the lookup and putIfAbsent found no counter to update
+                counter.syncCapacity(capacityLookup.applyAsInt(eventName));
+            }
+        }
+        return counter;
+    }
+
+    private abstract static class Counter {
+        private final AtomicInteger capacity;
+
+        Counter(int capacity) {
+            this.capacity = new AtomicInteger(capacity);
+        }
+
+        abstract boolean tryAcquire(int tickets);
+
+        abstract void release(int tickets);
+
+        abstract int remaining();
+
+        // Take up to the given number of tickets; returns how many were taken
+        abstract int drain(int tickets);
+
+        // Apply an admin change to the event's capacity as a delta on the remaining count
+        void syncCapacity(int newCapacity) {
+            int old = capacity.get();
+            if (old == newCapacity || !capacity.compareAndSet(old, newCapacity)) {
+                return;
+            }
+            if (newCapacity > old) {
+                release(newCapacity - old);
+            } else {
+                drain(old - newCapacity);
+            }
+        }
+    }
+
+    private static class SingleCounter extends Counter {
+        private final AtomicInteger remaining;
+
+        SingleCounter(int capacity, int remaining) {
+            super(capacity);
+            this.remaining = new AtomicInteger(Math.max(0, remaining));
+        }
+
+        @Override
+        boolean tryAcquire(int tickets) {
+            while (true) {
+                int current = remaining.get();
+                if (current < tickets) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - tickets)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        void release(int tickets) {
+            remaining.addAndGet(tickets);
+        }
+
+        @Override
+        int remaining() {
+            return remaining.get();
+        }
+
+        @Override
+        int drain(int tickets) {
+            while (true) {
+                int current = remaining.get();
+                int taken = Math.min(current, tickets);
+                if (remaining.compareAndSet(current, current - taken)) {
+                    return taken;
+                }
+            }
+        }
+    }
+
+    // Remaining capacity spread over stripes; a request first tries to take everything from one
+    // stripe, starting at a random one, without locking. Only when no single stripe can cover it
+    // does it gather from several, under the counter's lock: two gatherers holding part of the
+    // remainder each could otherwise both give up while there were enough tickets for one of them.
+    // Stripes are PAD ints apart so neighbouring stripes do not share a cache line.
+    private static class StripedCounter extends Counter {
+        private static final int PAD = 16;
+        private final AtomicIntegerArray stripes = new AtomicIntegerArray(STRIPES * PAD);
+
+        StripedCounter(int capacity, int remaining) {
+            super(capacity);
+            remaining = Math.max(0, remaining);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.set(i * PAD, remaining / STRIPES + (i < remaining % STRIPES ? 1 : 0));
+            }
+        }
+
+        @Override
+        boolean tryAcquire(int tickets) {
+            // Fast path: one stripe covers the whole request
+            int home = ThreadLocalRandom.current().nextInt(STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                if (takeFrom((home + i) & (STRIPES - 1), tickets, true) == tickets) {
+                    return true;
+                }
+            }
+            // Slow path: gather from several stripes, handing everything back if it is not enough
+            synchronized (this) {
+                int gathered = drain(tickets);
+                if (gathered == tickets) {
+                    return true;
+                }
+                release(gathered);
+                return false;
+            }
+        }
+
+        @Override
+        void release(int tickets) {
+            stripes.addAndGet(ThreadLocalRandom.current().nextInt(STRIPES) * PAD, tickets);
+        }
+
+        @Override
+        int remaining() {
+            int sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += stripes.get(i * PAD);
+            }
+            return sum;
+        }
+
+        @Override
+        int drain(int tickets) {
+            int gathered = 0;
+            for (int i = 0; i < STRIPES && gathered < tickets; i++) {
+                gathered += takeFrom(i, tickets - gathered, false);
+            }
+            return gathered;
+        }
+
+        // Decrement one stripe by up to wanted (exactly wanted if allOrNothing); returns the amount taken
+        private int takeFrom(int stripe, int wanted, boolean allOrNothing) {
+            int index = stripe * PAD;
+            while (true) {
+                int current = stripes.get(index);
+                int taken = Math.min(current, wanted);
+                if (taken <= 0 || (allOrNothing && taken < wanted)) {
+                    return 0;
+                }
+                if (stripes.compareAndSet(index, current, current - taken)) {
+                    return taken;
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,13 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TicketBookingForm extends JFrame {
 
     private String username;
+    private final UiTaskRunner tasks = new UiTaskRunner(this);
 
     public TicketBookingForm(String username) {
         this.username = username;
@@ -25,24 +24,12 @@ public class TicketBookingForm extends JFrame {
         // Event selection panel
         JPanel eventPanel = new JPanel();
         JLabel eventLabel = new JLabel("Select Event:");
-        List<String> eventList = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("events.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) { // Handle both 3-part (name,price,dateTime) and 4-part (name,price,dateTime,location)
-                    eventList.add(parts[0].trim());
-                }
-            }
-        } catch (IOException e) {
-            eventList.add("Music Event");
-            eventList.add("Cinema");
-            eventList.add("Comedy Show");
-        }
-        String[] events = eventList.toArray(new String[0]);
-        JComboBox<String> eventCombo = new JComboBox<>(events);
+        JComboBox<String> eventCombo = new JComboBox<>();
+        JLabel noEventsLabel = new JLabel("No events available.");
+        noEventsLabel.setVisible(false);
         eventPanel.add(eventLabel);
         eventPanel.add(eventCombo);
+        eventPanel.add(noEventsLabel);
         add(eventPanel);
 
         // Ticket input panel
@@ -56,7 +43,7 @@ public class TicketBookingForm extends JFrame {
         // Seat selection panel
         JPanel seatPanel = new JPanel();
         JLabel seatLabel = new JLabel("Select Seats:");
-        JTextField seatField = new JTextField(10); // For simplicity, enter seat numbers
+        JTextField seatField = new JTextField(10); // Comma-separated seats, e.g. A1,A2
         seatPanel.add(seatLabel);
         seatPanel.add(seatField);
         add(seatPanel); // Add without index to avoid GridLayout issues
@@ -79,6 +66,24 @@ public class TicketBookingForm extends JFrame {
         buttonPanel.add(logoutBtn);
         add(buttonPanel);
 
+        // Booking stays disabled until the events are loaded, and when there are none
+        bookBtn.setEnabled(false);
+        tasks.submit("events", () -> {
+            List<String> eventList = new ArrayList<>();
+            for (Event event : BookingService.getInstance().getEvents()) {
+                eventList.add(event.getName());
+            }
+            return eventList;
+        }, eventList -> {
+            for (String event : eventList) {
+                eventCombo.addItem(event);
+            }
+            boolean hasEvents = !eventList.isEmpty();
+            eventCombo.setEnabled(hasEvents);
+            noEventsLabel.setVisible(!hasEvents);
+            bookBtn.setEnabled(hasEvents);
+        });
+
         // Action listeners
         bookBtn.addActionListener(e -> {
             try {
@@ -93,11 +98,21 @@ public class TicketBookingForm extends JFrame {
                     JOptionPane.showMessageDialog(this, "Please enter seat numbers.");
                     return;
                 }
-                String bookingId = String.valueOf(System.currentTimeMillis()); // Simple unique ID
-                AdminPanel.logTicketBooking(username, eventType, ticketCount, seats, bookingId);
-                JOptionPane.showMessageDialog(this, "Booked " + ticketCount + " ticket(s) for " + eventType + " successfully! Booking ID: " + bookingId);
-                ticketField.setText("");
-                seatField.setText("");
+                List<String> seatList = Arrays.asList(seats.split(","));
+                if (seatList.size() != ticketCount) {
+                    JOptionPane.showMessageDialog(this, "Number of seats (" + seatList.size() + ") must match ticket count (" + ticketCount + ").");
+                    return;
+                }
+                bookBtn.setEnabled(false);
+                tasks.submit(null, () -> BookingService.getInstance().book(username, eventType, seatList), id -> {
+                    bookBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Booked " + ticketCount + " ticket(s) for " + eventType + " successfully! Booking ID: " + id);
+                    ticketField.setText("");
+                    seatField.setText("");
+                }, error -> {
+                    bookBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, error.getMessage());
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Please enter a valid number.");
             }
@@ -109,9 +124,16 @@ public class TicketBookingForm extends JFrame {
                 JOptionPane.showMessageDialog(this, "Please enter an inquiry.");
                 return;
             }
-            AdminPanel.logInquiry(username, inquiry);
-            JOptionPane.showMessageDialog(this, "Inquiry submitted successfully!");
-            inquiryField.setText(""); // Clear input field
+            submitInquiryBtn.setEnabled(false);
+            AdminPanel.logInquiry(username, inquiry).whenComplete((v, ex) -> SwingUtilities.invokeLater(() -> {
+                submitInquiryBtn.setEnabled(true);
+                if (ex != null) {
+                    JOptionPane.showMessageDialog(this, "Error submitting inquiry: " + ex.getCause().getMessage());
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, "Inquiry submitted successfully!");
+                inquiryField.setText(""); // Clear input field
+            }));
         });
 
         logoutBtn.addActionListener(e -> {
@@ -0,0 +1,75 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+// Runs a window's data access through AsyncRepository and hands results back on the EDT.
+// Work is grouped by key: starting a task cancels the previous unfinished task with the same key,
+// and a superseded result is never shown. Work submitted with a null key (writes) is never
+// superseded. While anything is running the window shows a small
+// indeterminate progress bar on its glass pane and a wait cursor; input is not blocked.
+// All methods must be called on the event dispatch thread.
+public class UiTaskRunner {
+
+    private final RootPaneContainer window;
+    private final JProgressBar progressBar = new JProgressBar();
+    private final Map<String, CompletableFuture<?>> current = new HashMap<>();
+    private int running;
+
+    public UiTaskRunner(RootPaneContainer window) {
+        this.window = window;
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(120, 12));
+        JPanel glass = new JPanel(new BorderLayout());
+        glass.setOpaque(false);
+        JPanel corner = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        corner.setOpaque(false);
+        corner.add(progressBar);
+        glass.add(corner, BorderLayout.SOUTH);
+        window.setGlassPane(glass);
+    }
+
+    // Errors are shown in a message dialog
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onSuccess) {
+        submit(key, work, onSuccess, error -> JOptionPane.showMessageDialog(window.getRootPane(), "Error: " + error.getMessage()));
+    }
+
+    public <T> void submit(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        if (key != null) {
+            CompletableFuture<?> previous = current.remove(key);
+            if (previous != null) {
+                previous.cancel(true);
+            }
+        }
+        CompletableFuture<T> future = AsyncRepository.supply(work);
+        if (key != null) {
+            current.put(key, future);
+        }
+        busy(1);
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            busy(-1);
+            if (key != null) {
+                if (current.get(key) != future) {
+                    return; // superseded or cancelled
+                }
+                current.remove(key);
+            }
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                onSuccess.accept(value);
+            }
+        }));
+    }
+
+    private void busy(int delta) {
+        running += delta;
+        boolean busy = running > 0;
+        window.getGlassPane().setVisible(busy);
+        window.getRootPane().setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+}
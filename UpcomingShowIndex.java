@@ -0,0 +1,126 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// The catalog's events split at the current time into upcoming and past shows, each ordered by
+// start time (then name). A scheduled cut-over moves every show from upcoming to past at its start
+// time and marks the Event as started, so a page of upcoming shows is a walk from a position in a
+// skip list (O(log n + k)) and "has this show started?" is a flag read instead of a date comparison.
+// EventCatalog keeps one per loaded catalog and passes admin edits through put and remove.
+public class UpcomingShowIndex {
+
+    // Sleep at most this long between checks, so a changed system clock is picked up
+    private static final Duration MAX_SLEEP = Duration.ofMinutes(1);
+    private static final Comparator<Event> START_ORDER = Comparator.comparing(Event::getDateTime).thenComparing(Event::getName);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "show-cut-over");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final NavigableSet<Event> upcoming = new ConcurrentSkipListSet<>(START_ORDER);
+    private final NavigableSet<Event> past = new ConcurrentSkipListSet<>(START_ORDER);
+    private ScheduledFuture<?> nextCutOver;
+    private boolean closed;
+
+    public UpcomingShowIndex(Collection<Event> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Event event : events) {
+            if (event.getDateTime().isAfter(now)) {
+                upcoming.add(event);
+            } else {
+                event.markStarted();
+                past.add(event);
+            }
+        }
+        schedule();
+    }
+
+    // Up to limit shows that have not started, in start order, after the given show (null for the first page).
+    // The show passed in only marks a position, so paging works even if it has started or been deleted since.
+    public List<Event> upcoming(Event after, int limit) {
+        List<Event> page = new ArrayList<>(Math.min(limit, 256));
+        for (Event event : after == null ? upcoming : upcoming.tailSet(after, false)) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (!event.hasStarted()) { // may still be in the set while being moved
+                page.add(event);
+            }
+        }
+        return page;
+    }
+
+    // Up to limit shows that have started, most recent first
+    public List<Event> past(int limit) {
+        List<Event> page = new ArrayList<>(Math.min(limit, 256));
+        for (Event event : past.descendingSet()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(event);
+        }
+        return page;
+    }
+
+    public synchronized void put(Event event) {
+        if (event.getDateTime().isAfter(LocalDateTime.now())) {
+            upcoming.add(event);
+            schedule();
+        } else {
+            event.markStarted();
+            past.add(event);
+        }
+    }
+
+    public synchronized void remove(Event event) {
+        upcoming.remove(event);
+        past.remove(event);
+        schedule();
+    }
+
+    // Stop the cut-over once a reloaded catalog replaces this index
+    public synchronized void close() {
+        closed = true;
+        if (nextCutOver != null) {
+            nextCutOver.cancel(false);
+            nextCutOver = null;
+        }
+    }
+
+    // Move every show whose start time has come, then wait for the next one
+    private synchronized void cutOver() {
+        LocalDateTime now = LocalDateTime.now();
+        while (!upcoming.isEmpty() && !upcoming.first().getDateTime().isAfter(now)) {
+            Event started = upcoming.first();
+            started.markStarted();
+            past.add(started);
+            upcoming.remove(started);
+        }
+        schedule();
+    }
+
+    private synchronized void schedule() {
+        if (nextCutOver != null) {
+            nextCutOver.cancel(false);
+            nextCutOver = null;
+        }
+        if (closed || upcoming.isEmpty()) {
+            return;
+        }
+        Duration delay = Duration.between(LocalDateTime.now(), upcoming.first().getDateTime());
+        if (delay.compareTo(MAX_SLEEP) > 0) {
+            delay = MAX_SLEEP;
+        }
+        nextCutOver = SCHEDULER.schedule(this::cutOver, Math.max(0, delay.toNanos()), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Byte offsets of each user's active bookings in ticket_bookings.txt, so listing one member's
+// bookings costs one positioned read per booking instead of a scan of every booking ever made.
+// Like SoldTicketIndex it tails the log: new bookings and cancellation tombstones appended since
+// the last query are applied on the next one, and a rewritten (compacted) log is re-indexed from
+// the start. Records are checked against the index as they are read, so a rewrite racing a read
+// is noticed and the read retried.
+public class UserBookingIndex {
+
+    private static final Metrics.Operation TAIL = Metrics.operation("userIndexTail");
+
+    private final File logFile;
+    private final Map<String, UserBookings> users = new HashMap<>();
+    private long offset;
+    private long checksum;
+    private long lastModified = -1;
+
+    // One user's active bookings in log order: booking IDs and the offsets of their lines
+    private static class UserBookings {
+        String[] ids = new String[2];
+        long[] offsets = new long[2];
+        int size;
+
+        // A booking ID seen again replaces the earlier line in place, as BookingLog.readActive does
+        void put(String bookingId, long lineOffset) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(bookingId)) {
+                    offsets[i] = lineOffset;
+                    return;
+                }
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            ids[size] = bookingId;
+            offsets[size] = lineOffset;
+            size++;
+        }
+
+        void remove(String bookingId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i].equals(bookingId)) {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    System.arraycopy(offsets, i + 1, offsets, i, size - i - 1);
+                    ids[--size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    UserBookingIndex(File logFile) {
+        this.logFile = logFile;
+    }
+
+    // The user's uncancelled bookings in log order
+    public List<BookingRecord> activeBookings(String username) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            String[] ids;
+            long[] offsets;
+            synchronized (this) {
+                refresh();
+                UserBookings bookings = users.get(username);
+                if (bookings == null) {
+                    return new ArrayList<>();
+                }
+                ids = Arrays.copyOf(bookings.ids, bookings.size);
+                offsets = Arrays.copyOf(bookings.offsets, bookings.size);
+            }
+            List<BookingRecord> records = read(username, ids, offsets);
+            if (records != null) {
+                return records;
+            }
+            if (attempt > 0) {
+                throw new IOException("Bookings changed while they were being read; please try again.");
+            }
+            synchronized (this) {
+                rebuild();
+            }
+        }
+    }
+
+    // Bring the index up to date with the log, parsing only the appended bytes
+    private void refresh() throws IOException {
+        long size = logFile.length();
+        long modified = logFile.lastModified();
+        if (size == offset && modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        if (size < offset || (offset > 0 && checksum != BookingLog.checksumBefore(logFile, offset))) {
+            rebuild();
+        }
+        if (logFile.exists() && logFile.length() > offset) {
+            tail();
+        }
+    }
+
+    private void rebuild() {
+        users.clear();
+        offset = 0;
+        checksum = 0;
+        lastModified = -1;
+    }
+
+    private void tail() throws IOException {
+        long start = System.nanoTime();
+        FlightEvents.FileScan scan = new FlightEvents.FileScan();
+        scan.begin();
+        try (RecordScanner scanner = new RecordScanner(logFile, offset, false)) {
+            long rows = 0;
+            while (scanner.next()) {
+                rows++;
+                // username,event,ticketCount,timestamp,seats...,bookingId
+                if (scanner.fieldCount() < 6) {
+                    continue;
+                }
+                int tickets = scanner.parseInt(2);
+                String username;
+                String bookingId;
+                if (tickets != Integer.MIN_VALUE) {
+                    username = scanner.fieldString(0).trim();
+                    bookingId = scanner.fieldString(scanner.lastField()).trim();
+                } else {
+                    BookingRecord record = BookingRecord.parse(scanner.lineString()); // e.g. padded numbers
+                    if (record == null) {
+                        continue;
+                    }
+                    tickets = record.getTicketCount();
+                    username = record.getUsername();
+                    bookingId = record.getBookingId();
+                }
+                if (tickets < 0) {
+                    UserBookings bookings = users.get(username);
+                    if (bookings != null) {
+                        bookings.remove(bookingId);
+                    }
+                } else {
+                    users.computeIfAbsent(username, k -> new UserBookings()).put(bookingId, scanner.lineStart());
+                }
+            }
+            Metrics.ROWS_SCANNED.add(rows);
+            Metrics.BYTES_READ.add(scanner.position() - offset);
+            scan.finish(logFile, scanner.position() - offset, rows);
+            offset = scanner.position();
+            checksum = BookingLog.checksumBefore(logFile, offset);
+            TAIL.record(start);
+        } catch (IOException e) {
+            TAIL.recordError(start);
+            throw e;
+        }
+    }
+
+    // The records at the given offsets, or null if a line no longer holds the expected booking
+    private List<BookingRecord> read(String username, String[] ids, long[] offsets) throws IOException {
+        List<BookingRecord> records = new ArrayList<>(ids.length);
+        if (ids.length == 0) {
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i < ids.length; i++) {
+                String line = BookingLog.readLineAt(channel, offsets[i]);
+                BookingRecord record = line == null ? null : BookingRecord.parse(line);
+                if (record == null || record.isCancellation() || !record.getUsername().equals(username) || !record.getBookingId().equals(ids[i])) {
+                    return null;
+                }
+                records.add(record);
+            }
+        } catch (NoSuchFileException e) {
+            return null; // replaced between the lookup and the read
+        }
+        return records;
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// benchmarks.HotPaths on the real application classes. setUp writes a deterministic dataset
+// (same seed, so runs on different builds see the same files) and builds private instances of
+// the catalog, sold index, journal and credential store over it, as their getInstance() versions
+// are over the working directory.
+public class HotPathWorkload implements benchmarks.HotPaths {
+
+    private static final int EVENT_COUNT = 200;
+    private static final int CAPACITY = 1_000_000_000;
+    private static final int HASHED_USERS = 8;
+    private static final int CANCEL_TARGETS = 4096;
+    private static final String PASSWORD = "secret-password";
+
+    private File dir;
+    private File bookingFile;
+    private File eventsFile;
+    private SoldTicketIndex soldIndex;
+    private EventCatalog catalog;
+    private BookingJournal journal;
+    private CredentialStore credentials;
+    private int userCount;
+    private final List<String[]> cancelTargets = new ArrayList<>();
+    private final AtomicInteger nextCancel = new AtomicInteger();
+    private final AtomicLong nextBookingId = new AtomicLong();
+
+    @Override
+    public void setUp(File dir, int bookings) throws IOException {
+        this.dir = dir;
+        bookingFile = new File(dir, "ticket_bookings.txt");
+        eventsFile = new File(dir, "events.txt");
+        File credentialFile = new File(dir, "member_credentials.txt");
+        userCount = Math.max(100, bookings / 20);
+
+        writeEvents();
+        writeCredentials(credentialFile);
+        writeBookings(bookings);
+        nextBookingId.set(bookings);
+
+        soldIndex = new SoldTicketIndex(bookingFile, new File(dir, "ticket_bookings.idx"));
+        catalog = new EventCatalog(eventsFile, soldIndex);
+        catalog.refresh(); // first tail of the log, so measurements start from the steady state
+        journal = new BookingJournal(bookingFile,
+                Long.getLong("booking.journal.windowMicros", 2000),
+                Integer.getInteger("booking.journal.maxBatch", 256));
+        credentials = new CredentialStore(credentialFile);
+        credentials.isTaken("user0"); // index the credentials file
+    }
+
+    @Override
+    public int availableTickets() {
+        return catalog.getAvailableTickets(eventName(ThreadLocalRandom.current().nextInt(EVENT_COUNT)));
+    }
+
+    @Override
+    public int loadEvents() {
+        return new EventCatalog(eventsFile, soldIndex).getEvents().size();
+    }
+
+    @Override
+    public long monitorSales() throws IOException {
+        return RevenueEngine.aggregate(catalog.getEvents(), bookingFile).getTotalTickets();
+    }
+
+    @Override
+    public long totalTickets() throws IOException {
+        return BookingAggregator.aggregate(bookingFile).getTotalTickets();
+    }
+
+    // Targets are taken in turn; once one has been cancelled, later passes only pay for the search
+    @Override
+    public boolean cancelBooking() throws IOException {
+        String[] target = cancelTargets.get(Math.floorMod(nextCancel.getAndIncrement(), cancelTargets.size()));
+        BookingRecord cancelled = null;
+        for (BookingRecord record : BookingLog.readActive(bookingFile, r -> r.getUsername().equals(target[0]) && r.getBookingId().equals(target[1]))) {
+            cancelled = record;
+        }
+        if (cancelled == null) {
+            return false;
+        }
+        Event event = catalog.getEvent(cancelled.getEventName());
+        if (event != null && event.getDateTime().isBefore(LocalDateTime.now())) {
+            return false;
+        }
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        journal.append(cancelled.toCancellation(timestamp).toLine()).join();
+        return true;
+    }
+
+    @Override
+    public boolean loginLookup() {
+        return credentials.isTaken("user" + ThreadLocalRandom.current().nextInt(userCount));
+    }
+
+    @Override
+    public boolean login() {
+        return credentials.authenticate("hashed" + ThreadLocalRandom.current().nextInt(HASHED_USERS), PASSWORD).join();
+    }
+
+    @Override
+    public void logTicketBooking() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String record = "user" + random.nextInt(userCount) + "," + eventName(random.nextInt(EVENT_COUNT)) + ",2," + timestamp
+                + ",A1,A2,B" + nextBookingId.getAndIncrement();
+        journal.append(record).join();
+    }
+
+    @Override
+    public void tearDown() {
+        journal.flush();
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Error deleting benchmark data: " + e.getMessage());
+        }
+    }
+
+    private static String eventName(int i) {
+        return "Event " + i;
+    }
+
+    private void writeEvents() throws IOException {
+        try (Writer writer = open(eventsFile)) {
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                writer.write(eventName(i) + "," + (20 + i % 80) + ".50,2030-0" + (1 + i % 9) + "-15 20:00,Venue " + (i % 20) + "," + CAPACITY + "\n");
+            }
+        }
+    }
+
+    // Plaintext lines for every user, plus a few hashed ones for the full login path
+    private void writeCredentials(File file) throws IOException {
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < userCount; i++) {
+                writer.write("user" + i + ",pass" + i + "\n");
+            }
+            for (int i = 0; i < HASHED_USERS; i++) {
+                writer.write("hashed" + i + "," + CredentialStore.hash(PASSWORD) + "\n");
+            }
+        }
+    }
+
+    // About one booking in twenty cancels the one before it; the rest stay active
+    private void writeBookings(int bookings) throws IOException {
+        Random random = new Random(42);
+        int stride = Math.max(1, bookings / CANCEL_TARGETS);
+        try (Writer writer = open(bookingFile)) {
+            String previous = null;
+            for (int i = 0; i < bookings; i++) {
+                String user = "user" + random.nextInt(userCount);
+                String event = eventName(random.nextInt(EVENT_COUNT));
+                int tickets = 1 + random.nextInt(4);
+                StringBuilder line = new StringBuilder(96).append(user).append(',').append(event).append(',').append(tickets)
+                        .append(",2025-06-01 12:00:00");
+                for (int seat = 0; seat < tickets; seat++) {
+                    line.append(",A").append(1 + random.nextInt(100));
+                }
+                line.append(",B").append(i);
+                if (previous != null && random.nextInt(20) == 0) {
+                    BookingRecord record = BookingRecord.parse(previous);
+                    writer.write(record.toCancellation("2025-06-01 12:05:00").toLine());
+                    writer.write('\n');
+                    previous = null;
+                }
+                String text = line.toString();
+                writer.write(text);
+                writer.write('\n');
+                if (i % stride == 0 && cancelTargets.size() < CANCEL_TARGETS) {
+                    cancelTargets.add(new String[]{user, "B" + i});
+                } else {
+                    previous = text;
+                }
+            }
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Throughput and average time of the booking, availability, login and reporting hot paths on
+// generated datasets of 1k, 100k and 10M bookings. Every trial gets a fresh dataset in a
+// temporary directory (-Dbench.dir to put it elsewhere), so the paths that append to the log
+// (cancelBooking, logTicketBooking) never see data left behind by another run.
+// Run through HotPathRunner, which adds the gc profiler and writes jmh-result.json.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class HotPathBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int bookings;
+
+    private HotPaths workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String base = System.getProperty("bench.dir");
+        File dir = base != null
+                ? Files.createTempDirectory(new File(base).toPath(), "hot-paths-").toFile()
+                : Files.createTempDirectory("hot-paths-").toFile();
+        workload = (HotPaths) Class.forName("HotPathWorkload").getDeclaredConstructor().newInstance();
+        workload.setUp(dir, bookings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public int calculateAvailableTickets() {
+        return workload.availableTickets();
+    }
+
+    @Benchmark
+    public int loadEvents() {
+        return workload.loadEvents();
+    }
+
+    @Benchmark
+    public long monitorSales() throws IOException {
+        return workload.monitorSales();
+    }
+
+    @Benchmark
+    public long displayTotalTickets() throws IOException {
+        return workload.totalTickets();
+    }
+
+    @Benchmark
+    public boolean cancelBooking() throws IOException {
+        return workload.cancelBooking();
+    }
+
+    @Benchmark
+    public boolean loginLookup() {
+        return workload.loginLookup();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return workload.login();
+    }
+
+    // Many concurrent bookers, as in production; the journal's group commit batches their forces
+    @Benchmark
+    @Threads(16)
+    public void logTicketBooking() {
+        workload.logTicketBooking();
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+// The application hot paths driven by HotPathBenchmark.
+// The application lives in the default package, which JMH-generated code cannot import, so the
+// benchmark only sees this interface; HotPathWorkload (default package) implements it on top of
+// the real classes, each pointed at a generated dataset instead of the working directory.
+public interface HotPaths {
+
+    // Generate events, credentials and a booking log with the given number of bookings under dir
+    void setUp(File dir, int bookings) throws IOException;
+
+    // Remaining tickets for one event (EventCatalog + SoldTicketIndex tail), as calculateAvailableTickets
+    int availableTickets();
+
+    // Parse events.txt into the catalog, as loadEvents does on a cold start
+    int loadEvents();
+
+    // Full revenue aggregation over the booking log, as monitorSales
+    long monitorSales() throws IOException;
+
+    // Per-event ticket totals over the booking log, as displayTotalTickets
+    long totalTickets() throws IOException;
+
+    // Find one active booking by user and ID and append its tombstone, as cancelBooking
+    boolean cancelBooking() throws IOException;
+
+    // Username lookup in the credentials index, as the login form's existence check
+    boolean loginLookup();
+
+    // Full login of a user with a hashed password
+    boolean login();
+
+    // Append one booking record and wait until the journal has made it durable, as logTicketBooking
+    void logTicketBooking();
+
+    void tearDown();
+}